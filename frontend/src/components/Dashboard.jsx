@@ -38,7 +38,6 @@ function Dashboard() {
     const [searchTerm, setSearchTerm] = useState('');
 
     // Sales State
-    const [salesData, setSalesData] = useState([]);
     const [salesStats, setSalesStats] = useState({ totalRevenue: 0, byMedicine: [] });
 
     // Suppliers State
@@ -48,29 +47,7 @@ function Dashboard() {
     // Advanced Filtering & Sorting
     const [filterStatus, setFilterStatus] = useState('All'); // All, Available, Low Stock, Out of Stock, Expired
     const [sortConfig, setSortConfig] = useState({ key: 'name', direction: 'asc' });
-
-    const fetchSales = async () => {
-        try {
-            const response = await axios.get(`${import.meta.env.VITE_API_BASE_URL}/api/sales`, authConfig);
-            const sales = response.data;
-
-            const totalRevenue = sales.reduce((sum, sale) => sum + sale.totalPrice, 0);
-
-            const byMedicine = Object.values(sales.reduce((acc, sale) => {
-                if (!acc[sale.medicineName]) {
-                    acc[sale.medicineName] = { name: sale.medicineName, totalQty: 0, totalRev: 0 };
-                }
-                acc[sale.medicineName].totalQty += sale.quantity;
-                acc[sale.medicineName].totalRev += sale.totalPrice;
-                return acc;
-            }, {}));
-
-            setSalesStats({ totalRevenue, byMedicine });
-            setSalesData(sales);
-        } catch (error) {
-            console.error("Error fetching sales:", error);
-        }
-    };
+    const [statusCounts, setStatusCounts] = useState(null);
 
     const isExpired = (med) => {
         if (med.expired) return true;
@@ -89,20 +66,9 @@ function Dashboard() {
         setSortConfig({ key, direction });
     };
 
-    const sortedMedicines = [...medicines].sort((a, b) => {
-        if (a[sortConfig.key] < b[sortConfig.key]) {
-            return sortConfig.direction === 'asc' ? -1 : 1;
-        }
-        if (a[sortConfig.key] > b[sortConfig.key]) {
-            return sortConfig.direction === 'asc' ? 1 : -1;
-        }
-        return 0;
-    });
-
-    const filteredMedicines = sortedMedicines.filter(med => {
-        const matchesSearch = med.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-            med.description.toLowerCase().includes(searchTerm.toLowerCase());
-
+    // The listing comes back filtered and sorted by the server; only the
+    // ranked search results still need the status filter applied here
+    const filteredMedicines = !searchTerm.trim() ? medicines : medicines.filter(med => {
         const expired = isExpired(med);
         const lowStock = med.quantity > 0 && med.quantity <= 10;
         const outOfStock = med.quantity === 0;
@@ -113,7 +79,7 @@ function Dashboard() {
         else if (filterStatus === 'Out of Stock') matchesStatus = outOfStock;
         else if (filterStatus === 'Expired') matchesStatus = expired;
 
-        return matchesSearch && matchesStatus;
+        return matchesStatus;
     });
 
     // Add auth header to requests
@@ -124,26 +90,10 @@ function Dashboard() {
     const fetchSaleStats = async () => {
         try {
             const token = sessionStorage.getItem('token');
-            const response = await axios.get(`${import.meta.env.VITE_API_BASE_URL}/api/sales`, {
+            const response = await axios.get(`${import.meta.env.VITE_API_BASE_URL}/api/sales/summary`, {
                 headers: { 'Authorization': `Bearer ${token}` }
             });
-            const sales = response.data;
-            const totalRevenue = sales.reduce((acc, curr) => acc + curr.totalPrice, 0);
-            const medicineMap = {};
-            sales.forEach(sale => {
-                if (!medicineMap[sale.medicineName]) {
-                    medicineMap[sale.medicineName] = { totalQty: 0, totalRev: 0 };
-                }
-                const current = medicineMap[sale.medicineName];
-                medicineMap[sale.medicineName] = {
-                    totalQty: current.totalQty + sale.quantity,
-                    totalRev: current.totalRev + sale.totalPrice
-                };
-            });
-            const byMedicine = Object.keys(medicineMap).map(name => ({
-                name,
-                ...medicineMap[name]
-            }));
+            const { totalRevenue, byMedicine } = response.data;
             setSalesStats({ totalRevenue, byMedicine });
         } catch (error) {
             console.error('Error fetching sales:', error);
@@ -222,19 +172,45 @@ function Dashboard() {
     };
 
     useEffect(() => {
-        fetchMedicines();
-    }, [currentPage, pageSize]);
+        // Debounce typeahead so each keystroke does not hit the search endpoint
+        const timer = setTimeout(fetchMedicines, searchTerm.trim() ? 200 : 0);
+        return () => clearTimeout(timer);
+    }, [currentPage, pageSize, searchTerm, filterStatus, sortConfig]);
 
-    // Reset page when filtering, searching, or changing page size
+    // Reset page when filtering, sorting, searching, or changing page size
     useEffect(() => {
         setCurrentPage(0);
-    }, [searchTerm, filterStatus, pageSize]);
+    }, [searchTerm, filterStatus, pageSize, sortConfig]);
 
     const fetchMedicines = async () => {
         try {
-            const response = await axios.get(`${API_BASE}?paginate=true&page=${currentPage}&size=${pageSize}`, authConfig);
+            const query = searchTerm.trim();
+            if (query) {
+                const response = await axios.get(`${API_BASE}/search`,
+                    { ...authConfig, params: { q: query, limit: pageSize } });
+                setMedicines(response.data);
+                setTotalPages(0);
+                return;
+            }
+            const response = await axios.get(`${API_BASE}/filter`, {
+                ...authConfig,
+                params: {
+                    status: filterStatus,
+                    sort: sortConfig.key,
+                    direction: sortConfig.direction,
+                    page: currentPage,
+                    size: pageSize
+                }
+            });
             setMedicines(response.data.content);
             setTotalPages(response.data.totalPages);
+            setStatusCounts({
+                'All': response.data.allCount,
+                'Available': response.data.statusCounts.AVAILABLE,
+                'Low Stock': response.data.statusCounts.LOW_STOCK,
+                'Out of Stock': response.data.statusCounts.OUT_OF_STOCK,
+                'Expired': response.data.statusCounts.EXPIRED
+            });
         } catch (error) {
             console.error('Error fetching data:', error);
             if (error.response && error.response.status === 403) {
@@ -263,7 +239,17 @@ function Dashboard() {
             if (modalMode === 'add') {
                 await axios.post(API_BASE, formData, authConfig);
             } else if (modalMode === 'edit') {
-                await axios.put(`${API_BASE}/${currentMedicine.id}`, formData, authConfig); // Changed from selectedMedicine
+                // Send only what changed; stock goes as a delta so sales made meanwhile are kept
+                const changes = {};
+                ['name', 'description', 'expiryDate'].forEach((field) => {
+                    if ((formData[field] || '') !== (currentMedicine[field] || '')) changes[field] = formData[field];
+                });
+                if (Number(formData.price) !== currentMedicine.price) changes.price = Number(formData.price);
+                const delta = Number(formData.quantity) - currentMedicine.quantity;
+                if (delta !== 0) changes.quantityDelta = delta;
+                if (Object.keys(changes).length > 0) {
+                    await axios.patch(`${API_BASE}/${currentMedicine.id}`, changes, authConfig);
+                }
             } else if (modalMode === 'sell') {
                 await axios.post(`${API_BASE}/${currentMedicine.id}/sell?quantity=${sellQuantity}`, {}, authConfig); // Changed from selectedMedicine
             } else if (modalMode === 'billing') {
@@ -341,11 +327,12 @@ function Dashboard() {
                                     onChange={(e) => setFilterStatus(e.target.value)}
                                     className="filter-dropdown"
                                 >
-                                    <option value="All">All Medicines</option>
-                                    <option value="Available">Available</option>
-                                    <option value="Low Stock">Low Stock</option>
-                                    <option value="Out of Stock">Out of Stock</option>
-                                    <option value="Expired">Expired</option>
+                                    {[['All', 'All Medicines'], ['Available', 'Available'], ['Low Stock', 'Low Stock'],
+                                        ['Out of Stock', 'Out of Stock'], ['Expired', 'Expired']].map(([value, label]) => (
+                                        <option key={value} value={value}>
+                                            {label}{statusCounts ? ` (${statusCounts[value]})` : ''}
+                                        </option>
+                                    ))}
                                 </select>
                             </div>
                             <div style={{ display: 'flex', gap: '0.5rem', alignItems: 'center' }}>
@@ -0,0 +1,101 @@
+package com.pharmacy.management.security;
+
+import com.pharmacy.management.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token.
+ * <p>
+ * {@code legacy} replays what the filter used to do: extractUsername plus
+ * isTokenValid, which rebuilt the key and parser and verified the HMAC three
+ * times. {@code singleParse} verifies once with the shared parser and the
+ * verified-token cache disabled, and {@code cached} is the steady state for
+ * a client re-using its token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "YWJjZGVmZ2hpamtsbW5vcHFyc3R1dnd4eXoxMjM0NTY=";
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil(10_000L);
+        uncachedJwtUtil = newJwtUtil(0L);
+        user = new User("benchuser", "password", Collections.emptyList());
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyClaims(token).getSubject().equals(user.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return uncachedJwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public Claims cached() {
+        return jwtUtil.verifyToken(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // Every user is at version 0; only the first lookup reaches the stub repository
+    private static TokenVersionRegistry newTokenVersionRegistry() {
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[] { UserRepository.class }, (proxy, method, args) -> Optional.empty());
+        TokenVersionRegistry registry = new TokenVersionRegistry();
+        ReflectionTestUtils.setField(registry, "userRepository", users);
+        ReflectionTestUtils.setField(registry, "cacheSize", 1000L);
+        ReflectionTestUtils.setField(registry, "cacheTtlMs", 3_600_000L);
+        registry.init();
+        return registry;
+    }
+
+    private static JwtUtil newJwtUtil(long cacheSize) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "tokenVersionRegistry", newTokenVersionRegistry());
+        ReflectionTestUtils.setField(util, "secretKey", SECRET);
+        ReflectionTestUtils.setField(util, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(util, "verifiedCacheSize", cacheSize);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,94 @@
+package com.pharmacy.management.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoices rendered per second on one core ({@code @Threads(1)}, so the
+ * score is per core rather than per machine).
+ * <p>
+ * {@code legacyBill} is what EmailService used to do for every bill: a fresh
+ * layout Document, ten Paragraphs, an unsized output stream copied out with
+ * toByteArray. {@code bill} and {@code cart} go through {@link InvoiceRenderer}
+ * with its preloaded fonts, canvas template and pooled buffers; the cart has
+ * twenty lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class InvoiceRenderBenchmark {
+
+    private InvoiceRenderer invoiceRenderer;
+    private Medicine medicine;
+    private List<Sale> cart;
+
+    @Setup
+    public void setUp() throws IOException {
+        invoiceRenderer = new InvoiceRenderer();
+        ReflectionTestUtils.setField(invoiceRenderer, "renderThreads", 1);
+        ReflectionTestUtils.setField(invoiceRenderer, "renderQueueCapacity", 1);
+        ReflectionTestUtils.setField(invoiceRenderer, "bufferPoolSize", 4);
+        invoiceRenderer.start();
+
+        medicine = new Medicine("Paracetamol 500mg", "Pain relief and fever", 12.5, 100, null);
+        cart = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cart.add(new Sale("admin", "Medicine " + i, 2, 12.5, 25.0, LocalDateTime.now()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        invoiceRenderer.stop();
+    }
+
+    @Benchmark
+    public byte[] legacyBill() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Document document = new Document(new PdfDocument(new PdfWriter(outputStream)));
+        document.add(new Paragraph("Pharmacy Management System - Bill Invoice"));
+        document.add(new Paragraph("------------------------------------------------"));
+        document.add(new Paragraph("Medicine Name: " + medicine.getName()));
+        document.add(new Paragraph("Description: " + medicine.getDescription()));
+        document.add(new Paragraph("Price per Unit: ₹" + medicine.getPrice()));
+        document.add(new Paragraph("Quantity: " + 2));
+        document.add(new Paragraph("------------------------------------------------"));
+        document.add(new Paragraph("Total Price: ₹" + String.format("%.2f", 25.0)));
+        document.add(new Paragraph("------------------------------------------------"));
+        document.add(new Paragraph("Thank you for your purchase!"));
+        document.close();
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] bill() {
+        return invoiceRenderer.renderBill(medicine, 2, 25.0);
+    }
+
+    @Benchmark
+    public byte[] cart() {
+        return invoiceRenderer.renderCart(cart);
+    }
+}
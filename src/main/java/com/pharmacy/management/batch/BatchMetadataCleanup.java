@@ -0,0 +1,69 @@
+package com.pharmacy.management.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the durable batch metadata tables bounded by deleting job instances,
+ * with their executions, parameters and contexts, once every execution has
+ * finished more than {@code batch.metadata.retention-days} ago.
+ */
+@Component
+public class BatchMetadataCleanup {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchMetadataCleanup.class);
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Value("${batch.metadata.retention-days:30}")
+    private int retentionDays;
+
+    @Scheduled(cron = "0 30 3 * * ?") // Every day at 3:30 AM
+    public int purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int deleted = 0;
+        for (String jobName : jobExplorer.getJobNames()) {
+            // Collect first, then delete, so removals never shift the pages being read
+            List<JobInstance> expired = new ArrayList<>();
+            List<JobInstance> page;
+            int start = 0;
+            do {
+                page = jobExplorer.getJobInstances(jobName, start, PAGE_SIZE);
+                page.stream().filter(instance -> isExpired(instance, cutoff)).forEach(expired::add);
+                start += PAGE_SIZE;
+            } while (page.size() == PAGE_SIZE);
+
+            for (JobInstance instance : expired) {
+                jobRepository.deleteJobInstance(instance);
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Purged {} batch job instances older than {} days", deleted, retentionDays);
+        }
+        return deleted;
+    }
+
+    private boolean isExpired(JobInstance instance, LocalDateTime cutoff) {
+        List<JobExecution> executions = jobExplorer.getJobExecutions(instance);
+        return !executions.isEmpty() && executions.stream().allMatch(execution ->
+                !execution.isRunning() && execution.getEndTime() != null && execution.getEndTime().isBefore(cutoff));
+    }
+}
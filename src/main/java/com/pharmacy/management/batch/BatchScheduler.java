@@ -1,31 +1,27 @@
 package com.pharmacy.management.batch;
 
-import org.springframework.batch.core.Job;
-import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.LocalDate;
+
 @Configuration
 @EnableScheduling
 public class BatchScheduler {
 
     @Autowired
-    private JobLauncher jobLauncher;
-
-    @Autowired
-    private Job expiryJob;
+    private ExpiryJobLauncher expiryJobLauncher;
 
-    @Scheduled(cron = "0 45 9 * * ?") // Every day at 9:45 AM
+    // Every day at 9:45 AM. Items are normally flagged at midnight by ExpiryScheduler;
+    // this run reconciles anything it missed (restarts, direct database edits)
+    @Scheduled(cron = "0 45 9 * * ?")
     public void runExpiryCheck() {
         try {
-            jobLauncher.run(
-                    expiryJob,
-                    new JobParametersBuilder()
-                            .addLong("time", System.currentTimeMillis())
-                            .toJobParameters());
+            // Its own instance, so it still runs after today's startup run completed;
+            // restarts it if an earlier attempt failed
+            expiryJobLauncher.launch(LocalDate.now(), ExpiryJobLauncher.Trigger.SCHEDULED);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -6,8 +6,10 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
@@ -19,19 +21,69 @@ public class ExpiryBatchConfig {
             PlatformTransactionManager transactionManager,
             MedicineReader reader,
             MedicineProcessor processor,
-            MedicineWriter writer) {
+            MedicineWriter writer,
+            @Value("${batch.expiry.chunk-size:100}") int chunkSize) {
         return new StepBuilder("expiryStep", jobRepository)
-                .<Medicine, Medicine>chunk(10, transactionManager)
+                .<Medicine, Medicine>chunk(chunkSize, transactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
                 .build();
     }
 
+    /**
+     * Runs {@link #expiryStep} once per tenant, at most
+     * {@code batch.expiry.threads} partitions at a time.
+     */
     @Bean
-    public Job expiryJob(JobRepository jobRepository, Step expiryStep) {
+    public Step partitionedExpiryStep(
+            JobRepository jobRepository,
+            Step expiryStep,
+            TenantPartitioner partitioner,
+            @Value("${batch.expiry.threads:4}") int threads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // Not a bean: an Executor bean would make Boot back off its applicationTaskExecutor
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("expiry-");
+        taskExecutor.setConcurrencyLimit(threads);
+        taskExecutor.setVirtualThreads(virtualThreads);
+        return new StepBuilder("partitionedExpiryStep", jobRepository)
+                .partitioner(expiryStep.getName(), partitioner)
+                .step(expiryStep)
+                .gridSize(threads)
+                .taskExecutor(taskExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step markExpiredStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            MarkExpiredTasklet tasklet) {
+        return new StepBuilder("markExpiredStep", jobRepository)
+                .tasklet(tasklet, transactionManager)
+                .build();
+    }
+
+    /**
+     * {@code batch.expiry.mode=bulk} (default) marks expired stock with one
+     * indexed updateMany; {@code chunk} keeps the read-process-write step for
+     * logic that cannot be expressed as a Mongo filter, and {@code partitioned}
+     * runs that step per tenant across {@code batch.expiry.threads} threads.
+     */
+    @Bean
+    public Job expiryJob(
+            JobRepository jobRepository,
+            Step expiryStep,
+            Step partitionedExpiryStep,
+            Step markExpiredStep,
+            @Value("${batch.expiry.mode:bulk}") String mode) {
+        Step step = switch (mode.toLowerCase()) {
+            case "chunk" -> expiryStep;
+            case "partitioned" -> partitionedExpiryStep;
+            default -> markExpiredStep;
+        };
         return new JobBuilder("expiryJob", jobRepository)
-                .start(expiryStep)
+                .start(step)
                 .build();
     }
 }
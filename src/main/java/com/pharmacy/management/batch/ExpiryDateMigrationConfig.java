@@ -0,0 +1,54 @@
+package com.pharmacy.management.batch;
+
+import com.pharmacy.management.model.Medicine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class ExpiryDateMigrationConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryDateMigrationConfig.class);
+
+    @Bean
+    public Job expiryDateMigrationJob(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            ExpiryDateMigrationTasklet tasklet) {
+        return new JobBuilder("expiryDateMigrationJob", jobRepository)
+                .start(new StepBuilder("expiryDateMigrationStep", jobRepository)
+                        .tasklet(tasklet, transactionManager)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Converts any string expiry dates left over from before the date field
+     * existed, once, at startup. Does nothing when there are none.
+     */
+    @Bean
+    public ApplicationRunner expiryDateMigrationRunner(
+            MongoTemplate mongoTemplate,
+            JobLauncher jobLauncher,
+            Job expiryDateMigrationJob) {
+        return args -> {
+            if (!mongoTemplate.exists(ExpiryDateMigrationTasklet.stringExpiryDates(), Medicine.class)) {
+                return;
+            }
+            log.info("Found medicines with string expiry dates, running {}", expiryDateMigrationJob.getName());
+            jobLauncher.run(expiryDateMigrationJob, new JobParametersBuilder()
+                    .addLong("time", System.currentTimeMillis())
+                    .toJobParameters());
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.pharmacy.management.batch;
+
+import com.pharmacy.management.model.Medicine;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.stream.Stream;
+
+/**
+ * One-off conversion of medicines whose expiryDate was written as a
+ * yyyy-MM-dd string into the native date the model now uses. Values that
+ * do not parse are moved to {@code legacyExpiryDate} so nothing is lost.
+ * Safe to run repeatedly: only string-typed dates match.
+ */
+@Component
+public class ExpiryDateMigrationTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryDateMigrationTasklet.class);
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public static Query stringExpiryDates() {
+        return Query.query(Criteria.where("expiryDate").type(JsonSchemaObject.Type.STRING));
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        String collection = mongoTemplate.getCollectionName(Medicine.class);
+        Query query = stringExpiryDates();
+        query.fields().include("_id", "expiryDate");
+        query.cursorBatchSize(BATCH_SIZE);
+
+        long converted = 0;
+        long unparseable = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                String raw = document.getString("expiryDate");
+                Update update = new Update().inc("version", 1);
+                LocalDate parsed = parse(raw);
+                if (parsed != null) {
+                    // Same LocalDate -> Date conversion the mapping layer applies on save
+                    update.set("expiryDate", mongoTemplate.getConverter().convertToMongoType(parsed));
+                    converted++;
+                } else {
+                    update.unset("expiryDate");
+                    if (!raw.isBlank()) {
+                        update.set("legacyExpiryDate", raw);
+                        unparseable++;
+                    }
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(document.get("_id"))), update);
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+
+        contribution.incrementWriteCount(converted);
+        ExecutionContext stepContext = contribution.getStepExecution().getExecutionContext();
+        stepContext.putLong("convertedCount", converted);
+        stepContext.putLong("unparseableCount", unparseable);
+        log.info("Expiry date migration converted {} medicines, {} unparseable values kept in legacyExpiryDate",
+                converted, unparseable);
+        return RepeatStatus.FINISHED;
+    }
+
+    private LocalDate parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(raw.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.pharmacy.management.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Launches expiryJob with one job instance per calendar day and trigger, so
+ * the startup run and the scheduled reconciliation run are separate instances
+ * and completing one does not skip the other. Launching an instance whose run
+ * failed restarts it: completed steps are skipped and the chunk step resumes
+ * from its saved ExecutionContext. An instance already completed is left alone.
+ */
+@Component
+public class ExpiryJobLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryJobLauncher.class);
+    static final String RUN_DATE = "runDate";
+    static final String TRIGGER = "trigger";
+
+    public enum Trigger {
+        STARTUP,
+        SCHEDULED
+    }
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job expiryJob;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Value("${batch.expiry.run-on-startup:true}")
+    private boolean runOnStartup;
+
+    public JobExecution launch(LocalDate runDate, Trigger trigger) throws Exception {
+        return run(new JobParametersBuilder()
+                .addString(RUN_DATE, runDate.toString())
+                .addString(TRIGGER, trigger.name().toLowerCase(Locale.ROOT))
+                .toJobParameters());
+    }
+
+    private JobExecution run(JobParameters parameters) throws Exception {
+        try {
+            return jobLauncher.run(expiryJob, parameters);
+        } catch (JobInstanceAlreadyCompleteException e) {
+            log.info("{} already completed for {}", expiryJob.getName(), parameters);
+            return null;
+        }
+    }
+
+    /**
+     * A run still marked as started when the application boots was cut short
+     * by a crash or kill. Mark it failed so it becomes restartable, restart it
+     * if it was one of today's, then launch today's startup run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() throws Exception {
+        String today = LocalDate.now().toString();
+        List<JobParameters> restarts = new ArrayList<>();
+        for (JobExecution stale : jobExplorer.findRunningJobExecutions(expiryJob.getName())) {
+            log.warn("Marking interrupted {} execution {} ({}) as failed", expiryJob.getName(), stale.getId(),
+                    stale.getJobParameters().getString(RUN_DATE));
+            LocalDateTime now = LocalDateTime.now();
+            for (StepExecution step : stale.getStepExecutions()) {
+                if (step.getStatus().isRunning()) {
+                    step.setStatus(BatchStatus.FAILED);
+                    step.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted by shutdown"));
+                    step.setEndTime(now);
+                    jobRepository.update(step);
+                }
+            }
+            stale.setStatus(BatchStatus.FAILED);
+            stale.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted by shutdown"));
+            stale.setEndTime(now);
+            jobRepository.update(stale);
+            if (today.equals(stale.getJobParameters().getString(RUN_DATE))) {
+                restarts.add(stale.getJobParameters());
+            }
+        }
+        for (JobParameters parameters : restarts) {
+            run(parameters);
+        }
+        if (runOnStartup) {
+            launch(LocalDate.now(), Trigger.STARTUP);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.pharmacy.management.batch;
+
+import com.mongodb.client.result.UpdateResult;
+import com.pharmacy.management.config.CacheConfig;
+import com.pharmacy.management.repository.MedicineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Marks expired stock with a single server-side update instead of reading
+ * and rewriting every medicine. Matched and modified counts are logged and
+ * saved in the step's ExecutionContext; the modified count is also the
+ * step's write count.
+ */
+@Component
+public class MarkExpiredTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(MarkExpiredTasklet.class);
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        UpdateResult result = medicineRepository.markExpired(LocalDate.now());
+        long matched = result.getMatchedCount();
+        long modified = result.getModifiedCount();
+
+        contribution.incrementWriteCount(modified);
+        ExecutionContext stepContext = contribution.getStepExecution().getExecutionContext();
+        stepContext.putLong("matchedCount", matched);
+        stepContext.putLong("modifiedCount", modified);
+        log.info("Expiry run marked {} medicines expired ({} matched)", modified, matched);
+
+        // The update can touch any tenant, so drop every cached inventory list
+        Cache inventory = cacheManager.getCache(CacheConfig.INVENTORY);
+        if (modified > 0 && inventory != null) {
+            inventory.clear();
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
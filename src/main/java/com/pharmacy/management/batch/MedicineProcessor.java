@@ -5,22 +5,14 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 @Component
 public class MedicineProcessor implements ItemProcessor<Medicine, Medicine> {
 
     @Override
     public Medicine process(Medicine medicine) {
-        if (medicine.getExpiryDate() != null) {
-            try {
-                LocalDate expiryDate = LocalDate.parse(medicine.getExpiryDate());
-                if (expiryDate.isBefore(LocalDate.now())) {
-                    medicine.setExpired(true);
-                }
-            } catch (Exception e) {
-                // Handle invalid date formats if necessary
-            }
+        if (medicine.getExpiryDate() != null && medicine.getExpiryDate().isBefore(LocalDate.now())) {
+            medicine.setExpired(true);
         }
         return medicine;
     }
@@ -2,25 +2,79 @@ package com.pharmacy.management.batch;
 
 import com.pharmacy.management.model.Medicine;
 import com.pharmacy.management.repository.MedicineRepository;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Iterator;
+import java.util.List;
 
+/**
+ * Walks the medicines that are not yet flagged expired in _id order, one
+ * page at a time, so only a single page is ever held in memory. The last id
+ * handed out is saved in the step's ExecutionContext on every chunk commit,
+ * and a restarted run picks up after it instead of rescanning.
+ * <p>
+ * Step scoped, so each job execution (and each tenant partition) gets a
+ * fresh reader.
+ */
 @Component
-public class MedicineReader implements ItemReader<Medicine> {
+@StepScope
+public class MedicineReader implements ItemStreamReader<Medicine> {
+
+    static final String LAST_ID_KEY = "medicineReader.lastId";
 
     @Autowired
     private MedicineRepository medicineRepository;
 
-    private Iterator<Medicine> iterator;
+    @Value("${batch.expiry.page-size:200}")
+    private int pageSize;
+
+    // Set when running as a partition of partitionedExpiryStep; null means every tenant
+    @Value("#{stepExecutionContext['adminId']}")
+    private String adminId;
+
+    private String lastId;
+    private Iterator<Medicine> page = List.<Medicine>of().iterator();
+    private boolean exhausted;
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lastId = executionContext.containsKey(LAST_ID_KEY) ? executionContext.getString(LAST_ID_KEY) : null;
+        page = List.<Medicine>of().iterator();
+        exhausted = false;
+    }
 
     @Override
     public Medicine read() {
-        if (iterator == null) {
-            iterator = medicineRepository.findAll().iterator();
+        if (!page.hasNext()) {
+            if (exhausted) {
+                return null;
+            }
+            List<Medicine> next = medicineRepository.findUnexpiredAfter(adminId, lastId, pageSize);
+            exhausted = next.size() < pageSize;
+            page = next.iterator();
+            if (!page.hasNext()) {
+                return null;
+            }
         }
-        return iterator.hasNext() ? iterator.next() : null;
+        Medicine medicine = page.next();
+        lastId = medicine.getId();
+        return medicine;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (lastId != null) {
+            executionContext.putString(LAST_ID_KEY, lastId);
+        }
+    }
+
+    @Override
+    public void close() {
+        page = List.<Medicine>of().iterator();
     }
 }
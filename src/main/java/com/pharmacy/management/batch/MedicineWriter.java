@@ -1,20 +1,47 @@
 package com.pharmacy.management.batch;
 
+import com.pharmacy.management.config.CacheConfig;
 import com.pharmacy.management.model.Medicine;
 import com.pharmacy.management.repository.MedicineRepository;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Component
 public class MedicineWriter implements ItemWriter<Medicine> {
 
     @Autowired
     private MedicineRepository medicineRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
     public void write(Chunk<? extends Medicine> chunk) {
-        medicineRepository.saveAll(chunk.getItems());
+        // Only the flag is written, guarded on expiryDate, so a sale or edit made after
+        // the chunk was read is kept instead of being overwritten by the stale copy
+        List<String> expiredIds = chunk.getItems().stream()
+                .filter(Medicine::isExpired)
+                .map(Medicine::getId)
+                .toList();
+        if (!expiredIds.isEmpty()) {
+            medicineRepository.markExpired(expiredIds, LocalDate.now());
+        }
+
+        // Keep the per-tenant inventory cache in line with the expiry flags just written
+        Cache inventory = cacheManager.getCache(CacheConfig.INVENTORY);
+        if (inventory != null) {
+            chunk.getItems().stream()
+                    .map(Medicine::getAdminId)
+                    .filter(java.util.Objects::nonNull)
+                    .distinct()
+                    .forEach(inventory::evict);
+        }
     }
 }
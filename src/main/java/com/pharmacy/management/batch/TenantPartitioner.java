@@ -0,0 +1,44 @@
+package com.pharmacy.management.batch;
+
+import com.pharmacy.management.model.Medicine;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One partition per admin that still has unexpired stock. Each partition's
+ * step execution is named {@code expiryStep:tenant-<adminId>}, so its
+ * read/write counts and timings are recorded per tenant in the batch metadata.
+ */
+@Component
+public class TenantPartitioner implements Partitioner {
+
+    static final String ADMIN_ID_KEY = "adminId";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<String> adminIds = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("expired").is(false)), "adminId", Medicine.class, String.class);
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (String adminId : adminIds) {
+            if (adminId == null) {
+                continue;
+            }
+            ExecutionContext context = new ExecutionContext();
+            context.putString(ADMIN_ID_KEY, adminId);
+            partitions.put("tenant-" + adminId, context);
+        }
+        return partitions;
+    }
+}
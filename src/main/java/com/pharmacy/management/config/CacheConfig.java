@@ -0,0 +1,16 @@
+package com.pharmacy.management.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine-backed; sizes and TTLs come from spring.cache.caffeine.spec.
+ * Hit/miss counters are published as cache.gets through the actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Full medicine list per adminId. */
+    public static final String INVENTORY = "inventory";
+}
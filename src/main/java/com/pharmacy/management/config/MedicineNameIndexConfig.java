@@ -0,0 +1,44 @@
+package com.pharmacy.management.config;
+
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepositoryCustom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+@Configuration
+public class MedicineNameIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicineNameIndexConfig.class);
+
+    /**
+     * Makes a medicine name unique per admin, so two concurrent imports
+     * upserting the same name cannot both insert; Mongo retries the loser as
+     * an update. Created here rather than with @CompoundIndex because a
+     * database that already holds duplicates would fail index creation at
+     * startup; instead the error is logged, and bulk import refuses to run
+     * until the duplicates are merged and the index exists.
+     */
+    @Bean
+    public ApplicationRunner medicineNameIndexRunner(MongoTemplate mongoTemplate) {
+        return args -> {
+            try {
+                mongoTemplate.indexOps(Medicine.class).ensureIndex(new Index()
+                        .on("adminId", Sort.Direction.ASC)
+                        .on("name", Sort.Direction.ASC)
+                        .unique()
+                        .named(MedicineRepositoryCustom.UNIQUE_NAME_INDEX));
+            } catch (DataAccessException e) {
+                log.error("Could not create unique index {} on medicines; merge medicines with duplicate names "
+                        + "per admin and restart; bulk import is disabled until then: {}",
+                        MedicineRepositoryCustom.UNIQUE_NAME_INDEX, e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.pharmacy.management.config;
+
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.SalesRollup;
+import com.pharmacy.management.repository.SalesRollupRepository;
+import com.pharmacy.management.service.SalesSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+@Configuration
+public class SalesRollupBackfillConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupBackfillConfig.class);
+
+    /**
+     * Builds the rollups, once, for every admin whose sales predate them. The
+     * dashboard reads only the rollups, so without this an existing tenant
+     * would see no sales until someone rebuilt the summary by hand. An admin
+     * that already has a TOTAL rollup has been recording sales into it and is
+     * left alone.
+     */
+    @Bean
+    public ApplicationRunner salesRollupBackfillRunner(
+            MongoTemplate mongoTemplate,
+            SalesRollupRepository salesRollupRepository,
+            SalesSummaryService salesSummaryService) {
+        return args -> {
+            for (String adminId : mongoTemplate.findDistinct(new Query(), "adminId", Sale.class, String.class)) {
+                if (salesRollupRepository.existsById(
+                        SalesRollup.idOf(adminId, SalesRollup.Scope.TOTAL, SalesRollup.TOTAL_KEY))) {
+                    continue;
+                }
+                try {
+                    salesSummaryService.rebuild(adminId);
+                    log.info("Backfilled sales rollups for admin {}", adminId);
+                } catch (DataAccessException e) {
+                    log.error("Could not backfill sales rollups for admin {}; POST /api/sales/summary/rebuild "
+                            + "to retry: {}", adminId, e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.pharmacy.management.config;
+
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+@Configuration
+public class VersionBackfillConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionBackfillConfig.class);
+
+    /**
+     * Gives documents written before the @Version field existed a starting
+     * version. Without one they load with a null version, which Spring Data
+     * treats as new, so saving them would attempt an insert and fail on the
+     * duplicate id. Only matches documents still missing the field.
+     */
+    @Bean
+    public ApplicationRunner versionBackfillRunner(MongoTemplate mongoTemplate) {
+        return args -> {
+            Query unversioned = Query.query(Criteria.where("version").exists(false));
+            for (Class<?> type : List.of(Medicine.class, Supplier.class, Sale.class)) {
+                long modified = mongoTemplate.updateMulti(unversioned, new Update().set("version", 0L), type)
+                        .getModifiedCount();
+                if (modified > 0) {
+                    log.info("Backfilled version on {} {} documents", modified, type.getSimpleName());
+                }
+            }
+        };
+    }
+}
@@ -6,6 +6,7 @@ import com.pharmacy.management.model.User;
 import com.pharmacy.management.model.Role;
 import com.pharmacy.management.repository.UserRepository;
 import com.pharmacy.management.security.JwtUtil;
+import com.pharmacy.management.security.TokenVersionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -34,6 +35,9 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest request) {
         try {
@@ -82,4 +86,13 @@ public class AuthController {
 
         return ResponseEntity.ok("User registered successfully");
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(java.security.Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Not logged in");
+        }
+        tokenVersionRegistry.revokeAll(principal.getName());
+        return ResponseEntity.ok("Logged out from all sessions");
+    }
 }
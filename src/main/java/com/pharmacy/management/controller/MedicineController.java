@@ -1,6 +1,8 @@
 package com.pharmacy.management.controller;
 
+import com.pharmacy.management.dto.ImportReport;
 import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.service.MedicineImportService;
 import com.pharmacy.management.service.MedicineService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +15,9 @@ public class MedicineController {
     @Autowired
     private MedicineService medicineService;
 
+    @Autowired
+    private MedicineImportService medicineImportService;
+
     @GetMapping
     public Object getAllMedicines(
             @RequestParam(defaultValue = "0") int page,
@@ -25,6 +30,64 @@ public class MedicineController {
         return medicineService.getAllMedicines(principal.getName());
     }
 
+    @GetMapping("/page")
+    public com.pharmacy.management.dto.CursorPage<Medicine> getMedicinePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            java.security.Principal principal) {
+        return medicineService.getMedicinePage(principal.getName(), cursor, size, includeTotal);
+    }
+
+    @GetMapping("/rows")
+    public com.pharmacy.management.dto.ColumnarPage getMedicineRows(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            java.security.Principal principal) {
+        return medicineService.getMedicineRows(principal.getName(), cursor, size);
+    }
+
+    @GetMapping("/filter")
+    public com.pharmacy.management.dto.MedicineListing getFilteredMedicines(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer maxQuantity,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            java.security.Principal principal) {
+        com.pharmacy.management.model.StockStatus stockStatus = null;
+        if (status != null && !status.isBlank() && !status.equalsIgnoreCase("all")) {
+            try {
+                // Accepts both LOW_STOCK and the dashboard's "Low Stock"
+                stockStatus = com.pharmacy.management.model.StockStatus.valueOf(
+                        status.trim().toUpperCase().replace(' ', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported status: " + status);
+            }
+        }
+        com.pharmacy.management.dto.MedicineFilter filter = new com.pharmacy.management.dto.MedicineFilter(
+                stockStatus, minPrice, maxPrice, maxQuantity);
+        return medicineService.getFilteredMedicines(principal.getName(), filter, sort, direction, page, size);
+    }
+
+    @GetMapping("/search")
+    public java.util.List<Medicine> searchMedicines(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            java.security.Principal principal) {
+        return medicineService.searchMedicines(principal.getName(), q, limit);
+    }
+
+    @GetMapping("/expiring")
+    public java.util.List<Medicine> getExpiringMedicines(
+            @RequestParam(defaultValue = "30") int days,
+            java.security.Principal principal) {
+        return medicineService.getExpiringWithin(principal.getName(), days);
+    }
+
     @GetMapping("/{id}")
     public Medicine getMedicineById(@PathVariable String id, java.security.Principal principal) {
         return medicineService.getMedicineById(id, principal.getName());
@@ -35,6 +98,20 @@ public class MedicineController {
         return medicineService.addMedicine(medicine, principal.getName());
     }
 
+    /**
+     * Bulk upsert from a CSV (with a header row) or NDJSON body, read as it
+     * arrives rather than buffered.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ImportReport importMedicines(jakarta.servlet.http.HttpServletRequest request,
+            java.security.Principal principal) throws java.io.IOException {
+        org.springframework.http.MediaType contentType = org.springframework.http.MediaType
+                .parseMediaType(request.getContentType());
+        MedicineImportService.Format format = org.springframework.http.MediaType.APPLICATION_NDJSON
+                .isCompatibleWith(contentType) ? MedicineImportService.Format.NDJSON : MedicineImportService.Format.CSV;
+        return medicineImportService.importMedicines(principal.getName(), format, request.getInputStream());
+    }
+
     @PostMapping("/{id}/sell")
     public Medicine sellMedicine(@PathVariable String id, @RequestParam int quantity,
             java.security.Principal principal) {
@@ -47,6 +124,20 @@ public class MedicineController {
         return medicineService.updateMedicine(id, medicineDetails, principal.getName());
     }
 
+    @PatchMapping("/{id}")
+    public Medicine patchMedicine(@PathVariable String id,
+            @Valid @RequestBody com.pharmacy.management.dto.MedicinePatch patch,
+            java.security.Principal principal) {
+        return medicineService.patchMedicine(id, patch, principal.getName());
+    }
+
+    @PatchMapping("/bulk")
+    public com.pharmacy.management.dto.BulkPatchResult patchMedicines(
+            @Valid @RequestBody com.pharmacy.management.dto.BulkPatchRequest request,
+            java.security.Principal principal) {
+        return medicineService.patchMedicines(request.getUpdates(), principal.getName());
+    }
+
     @DeleteMapping("/{id}")
     public String deleteMedicine(@PathVariable String id, java.security.Principal principal) {
         medicineService.deleteMedicine(id, principal.getName());
@@ -57,7 +148,14 @@ public class MedicineController {
     public String billMedicine(@Valid @RequestBody com.pharmacy.management.dto.BillingRequest request,
             java.security.Principal principal) {
         medicineService.processBilling(request, principal.getName());
-        return "Billing successful. Email sent.";
+        return "Billing successful. Invoice will be emailed shortly.";
+    }
+
+    @PostMapping("/bill/cart")
+    public java.util.List<com.pharmacy.management.model.Sale> billCart(
+            @Valid @RequestBody com.pharmacy.management.dto.CartBillingRequest request,
+            java.security.Principal principal) {
+        return medicineService.processCartBilling(request, principal.getName());
     }
 
 }
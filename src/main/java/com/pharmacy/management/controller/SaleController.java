@@ -1,8 +1,25 @@
 package com.pharmacy.management.controller;
 
+import com.pharmacy.management.dto.ColumnarPage;
+import com.pharmacy.management.dto.CursorPage;
+import com.pharmacy.management.dto.SalesSummary;
+import com.pharmacy.management.model.Sale;
 import com.pharmacy.management.repository.SaleRepository;
+import com.pharmacy.management.service.InvoiceDownloadService;
+import com.pharmacy.management.service.SaleService;
+import com.pharmacy.management.service.SalesSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/sales")
@@ -11,6 +28,15 @@ public class SaleController {
     @Autowired
     private SaleRepository saleRepository;
 
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    @Autowired
+    private InvoiceDownloadService invoiceDownloadService;
+
     @GetMapping
     public Object getAllSales(
             @RequestParam(defaultValue = "0") int page,
@@ -23,4 +49,64 @@ public class SaleController {
         }
         return saleRepository.findByAdminId(principal.getName());
     }
+
+    @GetMapping("/page")
+    public CursorPage<Sale> getSalesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            java.security.Principal principal) {
+        return saleService.getSalesPage(principal.getName(), cursor, size, includeTotal);
+    }
+
+    @GetMapping("/rows")
+    public ColumnarPage getSaleRows(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            java.security.Principal principal) {
+        return saleService.getSaleRows(principal.getName(), cursor, size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            java.security.Principal principal) {
+        SaleService.ExportFormat exportFormat;
+        try {
+            exportFormat = SaleService.ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        String adminId = principal.getName();
+        boolean csv = exportFormat == SaleService.ExportFormat.CSV;
+        StreamingResponseBody body = out -> saleService.exportSales(adminId, from, to, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"sales." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    /**
+     * Re-downloads a sale's invoice PDF, revalidated by ETag.
+     */
+    @GetMapping("/{id}/invoice")
+    public void getInvoice(@PathVariable String id, java.security.Principal principal,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        invoiceDownloadService.send(id, saleService.getInvoice(id, principal.getName()), request, response);
+    }
+
+    @GetMapping("/summary")
+    public SalesSummary getSummary(@RequestParam(defaultValue = "30") int days,
+            java.security.Principal principal) {
+        return salesSummaryService.getSummary(principal.getName(), days);
+    }
+
+    @PostMapping("/summary/rebuild")
+    public String rebuildSummary(java.security.Principal principal) {
+        salesSummaryService.rebuild(principal.getName());
+        return "Sales summary rebuilt";
+    }
 }
@@ -0,0 +1,24 @@
+package com.pharmacy.management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkPatchRequest {
+
+    @NotEmpty(message = "At least one update is required")
+    @Size(max = 5000, message = "At most 5000 updates per request")
+    @Valid
+    private List<MedicinePatch> updates;
+
+    // Getters and Setters
+    public List<MedicinePatch> getUpdates() {
+        return updates;
+    }
+
+    public void setUpdates(List<MedicinePatch> updates) {
+        this.updates = updates;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pharmacy.management.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk patch. An edit that matched nothing either targets a
+ * medicine this admin does not have (listed in {@code missingIds}) or has a
+ * negative {@code quantityDelta} that would have taken stock below zero.
+ */
+public class BulkPatchResult {
+
+    private final int requested;
+    private final long matched;
+    private final long modified;
+    private final List<String> missingIds;
+
+    public BulkPatchResult(int requested, long matched, long modified, List<String> missingIds) {
+        this.requested = requested;
+        this.matched = matched;
+        this.modified = modified;
+        this.missingIds = missingIds;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+}
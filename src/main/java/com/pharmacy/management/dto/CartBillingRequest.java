@@ -0,0 +1,36 @@
+package com.pharmacy.management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class CartBillingRequest {
+
+    @NotEmpty(message = "Cart must contain at least one item")
+    @Valid
+    private List<CartItem> items;
+
+    @NotBlank(message = "Email is required")
+    @Email(message = "Invalid email format")
+    private String userEmail;
+
+    // Getters and Setters
+    public List<CartItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CartItem> items) {
+        this.items = items;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+}
@@ -0,0 +1,40 @@
+package com.pharmacy.management.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class CartItem {
+
+    @NotBlank(message = "Medicine name is required")
+    private String medicineName;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    public CartItem() {
+    }
+
+    public CartItem(String medicineName, Integer quantity) {
+        this.medicineName = medicineName;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public String getMedicineName() {
+        return medicineName;
+    }
+
+    public void setMedicineName(String medicineName) {
+        this.medicineName = medicineName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,43 @@
+package com.pharmacy.management.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A keyset page laid out by column: every column is one JSON array of
+ * {@code count} values, so each field name is written once per page instead
+ * of once per row. Numeric columns are primitive arrays, which Jackson writes
+ * without boxing.
+ */
+public class ColumnarPage {
+
+    private final int count;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+    private final String nextCursor;
+
+    public ColumnarPage(int count, String nextCursor) {
+        this.count = count;
+        this.nextCursor = nextCursor;
+    }
+
+    public ColumnarPage column(String name, Object values) {
+        columns.put(name, values);
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Map<String, Object> getColumns() {
+        return columns;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.pharmacy.management.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk medicine import. Rows are counted by what Mongo did with
+ * them; rejected rows are listed with their line number, up to a cap.
+ */
+public class ImportReport {
+
+    private long received;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public record RowError(long line, String name, String message) {
+    }
+
+    public void received() {
+        received++;
+    }
+
+    public void written(long inserted, long updated) {
+        this.inserted += inserted;
+        this.updated += updated;
+    }
+
+    public void reject(long line, String name, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, name, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+}
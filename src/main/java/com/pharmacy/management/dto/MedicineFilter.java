@@ -0,0 +1,57 @@
+package com.pharmacy.management.dto;
+
+import com.pharmacy.management.model.StockStatus;
+
+/**
+ * Optional constraints for the filtered medicine listing. Null fields are
+ * not applied.
+ */
+public class MedicineFilter {
+
+    private StockStatus status;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer maxQuantity;
+
+    public MedicineFilter() {
+    }
+
+    public MedicineFilter(StockStatus status, Double minPrice, Double maxPrice, Integer maxQuantity) {
+        this.status = status;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.maxQuantity = maxQuantity;
+    }
+
+    public StockStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StockStatus status) {
+        this.status = status;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    public void setMaxQuantity(Integer maxQuantity) {
+        this.maxQuantity = maxQuantity;
+    }
+}
@@ -0,0 +1,60 @@
+package com.pharmacy.management.dto;
+
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.StockStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the filtered medicine listing together with how many medicines
+ * fall in each stock status. The status counts ignore the status filter
+ * itself, so the dashboard can show every option's count at once.
+ */
+public class MedicineListing {
+
+    private final List<Medicine> content;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final long allCount;
+    private final Map<StockStatus, Long> statusCounts;
+
+    public MedicineListing(List<Medicine> content, int page, int size, long totalElements, long allCount,
+            Map<StockStatus, Long> statusCounts) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.allCount = allCount;
+        this.statusCounts = statusCounts;
+    }
+
+    public List<Medicine> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return (int) ((totalElements + size - 1) / size);
+    }
+
+    public long getAllCount() {
+        return allCount;
+    }
+
+    public Map<StockStatus, Long> getStatusCounts() {
+        return statusCounts;
+    }
+}
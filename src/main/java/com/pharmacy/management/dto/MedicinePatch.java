@@ -0,0 +1,101 @@
+package com.pharmacy.management.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+import java.time.LocalDate;
+
+/**
+ * A partial medicine edit. Only non-null fields are written. {@code quantity}
+ * sets the stock outright; {@code quantityDelta} adjusts it relative to
+ * whatever is stored, so it never overwrites a concurrent sale.
+ */
+public class MedicinePatch {
+
+    // Only read by the bulk endpoint; the single PATCH takes the id from the path
+    private String id;
+
+    @Pattern(regexp = ".*\\S.*", message = "Medicine name must not be blank")
+    private String name;
+
+    private String description;
+
+    @Min(value = 0, message = "Price must be non-negative")
+    private Double price;
+
+    @Min(value = 0, message = "Quantity must be non-negative")
+    private Integer quantity;
+
+    private Integer quantityDelta;
+
+    private LocalDate expiryDate;
+
+    public MedicinePatch() {
+    }
+
+    public boolean isEmpty() {
+        return name == null && description == null && price == null && quantity == null && quantityDelta == null
+                && expiryDate == null;
+    }
+
+    public boolean touchesSearchFields() {
+        return name != null || description != null;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public void setQuantityDelta(Integer quantityDelta) {
+        this.quantityDelta = quantityDelta;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+}
@@ -0,0 +1,11 @@
+package com.pharmacy.management.dto;
+
+import java.time.LocalDate;
+
+/**
+ * The medicine columns the inventory table shows. Used as a query projection
+ * so Mongo only returns these fields.
+ */
+public record MedicineRow(String id, String name, Double price, Integer quantity, LocalDate expiryDate,
+        boolean expired) {
+}
@@ -0,0 +1,13 @@
+package com.pharmacy.management.dto;
+
+import com.pharmacy.management.model.DeliveryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The sale columns the sales table shows. Used as a query projection so Mongo
+ * only returns these fields.
+ */
+public record SaleRow(String id, String medicineName, int quantity, double pricePerUnit, double totalPrice,
+        LocalDateTime saleDate, DeliveryStatus deliveryStatus) {
+}
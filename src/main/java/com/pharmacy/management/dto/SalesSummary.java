@@ -0,0 +1,74 @@
+package com.pharmacy.management.dto;
+
+import java.util.List;
+
+public class SalesSummary {
+
+    private double totalRevenue;
+    private long totalQuantity;
+    private long saleCount;
+    private List<Entry> byMedicine;
+    private List<Entry> daily;
+
+    public SalesSummary(double totalRevenue, long totalQuantity, long saleCount, List<Entry> byMedicine,
+            List<Entry> daily) {
+        this.totalRevenue = totalRevenue;
+        this.totalQuantity = totalQuantity;
+        this.saleCount = saleCount;
+        this.byMedicine = byMedicine;
+        this.daily = daily;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    public List<Entry> getByMedicine() {
+        return byMedicine;
+    }
+
+    public List<Entry> getDaily() {
+        return daily;
+    }
+
+    /**
+     * One row of a breakdown: a medicine name, or an ISO date for the daily series.
+     */
+    public static class Entry {
+        private final String name;
+        private final long saleCount;
+        private final long totalQty;
+        private final double totalRev;
+
+        public Entry(String name, long saleCount, long totalQty, double totalRev) {
+            this.name = name;
+            this.saleCount = saleCount;
+            this.totalQty = totalQty;
+            this.totalRev = totalRev;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSaleCount() {
+            return saleCount;
+        }
+
+        public long getTotalQty() {
+            return totalQty;
+        }
+
+        public double getTotalRev() {
+            return totalRev;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.pharmacy.management.model;
+
+public enum DeliveryStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -1,12 +1,24 @@
 package com.pharmacy.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Document(collection = "medicines")
+@CompoundIndex(name = "admin_name_id", def = "{'adminId': 1, 'name': 1, '_id': 1}")
+@CompoundIndex(name = "expired_expiryDate", def = "{'expired': 1, 'expiryDate': 1}")
+@CompoundIndex(name = "admin_expiryDate", def = "{'adminId': 1, 'expiryDate': 1}")
+@CompoundIndex(name = "admin_id", def = "{'adminId': 1, '_id': 1}")
+@CompoundIndex(name = "admin_price_id", def = "{'adminId': 1, 'price': 1, '_id': 1}")
+@CompoundIndex(name = "admin_quantity_id", def = "{'adminId': 1, 'quantity': 1, '_id': 1}")
 public class Medicine {
 
     @Id
@@ -15,7 +27,8 @@ public class Medicine {
     @org.springframework.data.mongodb.core.index.Indexed
     private String adminId;
 
-    private String expiryDate;
+    // Stored as a BSON date so Mongo can range-query and index it; JSON stays yyyy-MM-dd
+    private LocalDate expiryDate;
 
     @NotBlank(message = "Medicine name is required")
     private String name;
@@ -32,11 +45,20 @@ public class Medicine {
 
     private boolean expired = false;
 
+    // Bumped on every write; save() of a stale copy fails instead of overwriting
+    @Version
+    private Long version;
+
+    // Last few cart bills that took stock from this medicine, so a partly applied
+    // cart can find and undo its own lines. Mapped so a full save() keeps it.
+    @JsonIgnore
+    private List<String> recentBills;
+
     // Constructors
     public Medicine() {
     }
 
-    public Medicine(String name, String description, Double price, Integer quantity, String expiryDate) {
+    public Medicine(String name, String description, Double price, Integer quantity, LocalDate expiryDate) {
         this.name = name;
         this.description = description;
         this.price = price;
@@ -61,11 +83,11 @@ public class Medicine {
         this.adminId = adminId;
     }
 
-    public String getExpiryDate() {
+    public LocalDate getExpiryDate() {
         return expiryDate;
     }
 
-    public void setExpiryDate(String expiryDate) {
+    public void setExpiryDate(LocalDate expiryDate) {
         this.expiryDate = expiryDate;
     }
 
@@ -108,4 +130,20 @@ public class Medicine {
     public void setExpired(boolean expired) {
         this.expired = expired;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<String> getRecentBills() {
+        return recentBills;
+    }
+
+    public void setRecentBills(List<String> recentBills) {
+        this.recentBills = recentBills;
+    }
 }
@@ -1,22 +1,32 @@
 package com.pharmacy.management.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "sales")
+@CompoundIndex(name = "admin_saleDate_id", def = "{'adminId': 1, 'saleDate': -1, '_id': -1}")
 public class Sale {
 
     @Id
     private String id;
     @org.springframework.data.mongodb.core.index.Indexed
     private String adminId;
+    private String billId;
     private String medicineName;
     private int quantity;
     private double pricePerUnit;
     private double totalPrice;
     private LocalDateTime saleDate;
+    private DeliveryStatus deliveryStatus;
+    private int deliveryAttempts;
+    private String deliveryError;
+
+    @Version
+    private Long version;
 
     public Sale() {
     }
@@ -47,6 +57,14 @@ public class Sale {
         this.adminId = adminId;
     }
 
+    public String getBillId() {
+        return billId;
+    }
+
+    public void setBillId(String billId) {
+        this.billId = billId;
+    }
+
     public String getMedicineName() {
         return medicineName;
     }
@@ -86,4 +104,36 @@ public class Sale {
     public void setSaleDate(LocalDateTime saleDate) {
         this.saleDate = saleDate;
     }
+
+    public DeliveryStatus getDeliveryStatus() {
+        return deliveryStatus;
+    }
+
+    public void setDeliveryStatus(DeliveryStatus deliveryStatus) {
+        this.deliveryStatus = deliveryStatus;
+    }
+
+    public int getDeliveryAttempts() {
+        return deliveryAttempts;
+    }
+
+    public void setDeliveryAttempts(int deliveryAttempts) {
+        this.deliveryAttempts = deliveryAttempts;
+    }
+
+    public String getDeliveryError() {
+        return deliveryError;
+    }
+
+    public void setDeliveryError(String deliveryError) {
+        this.deliveryError = deliveryError;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,95 @@
+package com.pharmacy.management.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Running sales totals for one admin, kept up to date with $inc on every sale.
+ * One document per (adminId, scope, key): key is the ISO day for DAY, the
+ * medicine name for MEDICINE and "all" for TOTAL.
+ */
+@Document(collection = "sales_rollups")
+@CompoundIndex(name = "admin_scope_key", def = "{'adminId': 1, 'scope': 1, 'key': 1}")
+public class SalesRollup {
+
+    public enum Scope {
+        DAY,
+        MEDICINE,
+        TOTAL
+    }
+
+    public static final String TOTAL_KEY = "all";
+
+    @Id
+    private String id;
+    private String adminId;
+    private Scope scope;
+    private String key;
+    private long saleCount;
+    private long quantity;
+    private double revenue;
+
+    public SalesRollup() {
+    }
+
+    public static String idOf(String adminId, Scope scope, String key) {
+        return adminId + "|" + scope + "|" + key;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAdminId() {
+        return adminId;
+    }
+
+    public void setAdminId(String adminId) {
+        this.adminId = adminId;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public void setScope(Scope scope) {
+        this.scope = scope;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(long saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+}
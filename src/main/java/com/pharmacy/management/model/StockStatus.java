@@ -0,0 +1,14 @@
+package com.pharmacy.management.model;
+
+/**
+ * Stock status shown on the dashboard. AVAILABLE includes LOW_STOCK; an
+ * expired medicine is only ever EXPIRED or OUT_OF_STOCK.
+ */
+public enum StockStatus {
+    AVAILABLE,
+    LOW_STOCK,
+    OUT_OF_STOCK,
+    EXPIRED;
+
+    public static final int LOW_STOCK_THRESHOLD = 10;
+}
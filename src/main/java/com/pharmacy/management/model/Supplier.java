@@ -1,6 +1,7 @@
 package com.pharmacy.management.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Email;
@@ -23,6 +24,9 @@ public class Supplier {
 
     private String address;
 
+    @Version
+    private Long version;
+
     // Constructors
     public Supplier() {
     }
@@ -83,4 +87,12 @@ public class Supplier {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
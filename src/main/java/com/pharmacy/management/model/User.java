@@ -10,6 +10,8 @@ public class User {
     private String username;
     private String password;
     private Role role;
+    // Bumped on logout-everywhere; tokens carrying an older value are rejected
+    private int tokenVersion;
 
     public User() {
     }
@@ -51,4 +53,12 @@ public class User {
     public void setRole(Role role) {
         this.role = role;
     }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
 }
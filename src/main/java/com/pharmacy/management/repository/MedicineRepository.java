@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface MedicineRepository extends MongoRepository<Medicine, String> {
+public interface MedicineRepository extends MongoRepository<Medicine, String>, MedicineRepositoryCustom {
     Optional<Medicine> findByName(String name);
 
     java.util.List<Medicine> findByAdminId(String adminId);
@@ -15,7 +15,11 @@ public interface MedicineRepository extends MongoRepository<Medicine, String> {
     org.springframework.data.domain.Page<Medicine> findByAdminId(String adminId,
             org.springframework.data.domain.Pageable pageable);
 
+    long countByAdminId(String adminId);
+
     Optional<Medicine> findByNameAndAdminId(String name, String adminId);
 
     Optional<Medicine> findByIdAndAdminId(String id, String adminId);
+
+    java.util.List<Medicine> findByAdminIdAndNameIn(String adminId, java.util.Collection<String> names);
 }
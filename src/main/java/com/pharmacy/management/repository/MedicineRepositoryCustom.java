@@ -0,0 +1,129 @@
+package com.pharmacy.management.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.pharmacy.management.dto.MedicineFilter;
+import com.pharmacy.management.dto.MedicinePatch;
+import com.pharmacy.management.dto.MedicineRow;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.StockStatus;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface MedicineRepositoryCustom {
+
+    /** Unique index on (adminId, name), created at startup by MedicineNameIndexConfig. */
+    String UNIQUE_NAME_INDEX = "admin_name";
+
+    /**
+     * Atomically takes {@code quantity} units off a medicine, but only while it
+     * has enough stock and is not expired. Returns the updated document, or
+     * empty when nothing matched (missing, insufficient stock or expired).
+     */
+    Optional<Medicine> decrementStock(String id, String adminId, int quantity);
+
+    /**
+     * Same as {@link #decrementStock(String, String, int)} but looks the
+     * medicine up by name, as the billing screen does.
+     */
+    Optional<Medicine> decrementStockByName(String name, String adminId, int quantity);
+
+    /**
+     * Applies every decrement of a cart in one unordered bulk write, each guarded
+     * like {@link #decrementStock(String, String, int)}. If any line no longer
+     * matches, the lines that did apply are restored and false is returned.
+     */
+    boolean decrementStockBulk(String adminId, String billId, Map<String, Integer> quantitiesById);
+
+    /**
+     * Writes only the fields set on {@code patch} with one findAndModify and
+     * returns the updated document. A negative quantityDelta only applies while
+     * the stock covers it. Empty when nothing matched.
+     */
+    Optional<Medicine> patch(String id, String adminId, MedicinePatch patch, LocalDate today);
+
+    /**
+     * Applies every patch, keyed by its id, in one unordered bulk write with
+     * the same guards as {@link #patch}.
+     */
+    BulkWriteResult patchAll(String adminId, Collection<MedicinePatch> patches, LocalDate today);
+
+    /**
+     * Inserts or overwrites each medicine keyed on (adminId, name) in one
+     * unordered bulk write. Names must be unique within the batch.
+     */
+    BulkWriteResult upsertByName(String adminId, Collection<Medicine> medicines, LocalDate today);
+
+    /**
+     * Whether the unique {@link #UNIQUE_NAME_INDEX} index exists. It is missing
+     * when the collection held duplicate names at startup, and then an upsert
+     * by name may update an arbitrary one of them.
+     */
+    boolean hasUniqueNameIndex();
+
+    /**
+     * Deletes the medicine only if its stock is still zero, so a concurrent
+     * restock is never lost.
+     */
+    boolean deleteIfOutOfStock(String id);
+
+    long deleteIfOutOfStock(Collection<String> ids);
+
+    /**
+     * Keyset page of an admin's medicines ordered by (name, _id). Pass null for
+     * both keys to start at the beginning.
+     */
+    List<Medicine> findPageAfter(String adminId, String name, String id, int limit);
+
+    /**
+     * Same page as {@link #findPageAfter(String, String, String, int)} but only
+     * reads the columns of {@link MedicineRow}.
+     */
+    List<MedicineRow> findRowsAfter(String adminId, String name, String id, int limit);
+
+    /**
+     * One page of an admin's medicines matching {@code filter}, sorted as
+     * {@code pageable} asks. Every filter runs on the server against the
+     * adminId-prefixed indexes.
+     */
+    List<Medicine> findFiltered(String adminId, MedicineFilter filter, LocalDate today, Pageable pageable);
+
+    /**
+     * Counts an admin's medicines per stock status in one aggregation. The
+     * price and quantity filters apply; the status filter does not.
+     */
+    StatusCounts countByStatus(String adminId, MedicineFilter filter, LocalDate today);
+
+    /**
+     * Next page of medicines not yet flagged expired, ordered by _id. A null
+     * {@code adminId} covers every tenant; pass a null {@code id} to start at
+     * the beginning.
+     */
+    List<Medicine> findUnexpiredAfter(String adminId, String id, int limit);
+
+    /**
+     * An admin's medicines expiring between {@code from} and {@code to}, both
+     * inclusive, soonest first. Served from the (adminId, expiryDate) index.
+     */
+    List<Medicine> findExpiringBetween(String adminId, LocalDate from, LocalDate to);
+
+    /**
+     * Flags every medicine whose expiry date is before {@code today} as expired,
+     * across all tenants, in one server-side update.
+     */
+    UpdateResult markExpired(LocalDate today);
+
+    /**
+     * Same as {@link #markExpired(LocalDate)} but limited to the given ids, for
+     * callers that already know which medicines are due.
+     */
+    UpdateResult markExpired(Collection<String> ids, LocalDate today);
+
+    record StatusCounts(long total, Map<StockStatus, Long> byStatus) {
+    }
+}
@@ -0,0 +1,328 @@
+package com.pharmacy.management.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.pharmacy.management.dto.MedicineFilter;
+import com.pharmacy.management.dto.MedicinePatch;
+import com.pharmacy.management.dto.MedicineRow;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.StockStatus;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DataTypeOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class MedicineRepositoryImpl implements MedicineRepositoryCustom {
+
+    // Last few bill ids that touched a medicine (Medicine.recentBills), used to
+    // find which lines of a partially applied cart need to be rolled back
+    private static final String RECENT_BILLS = "recentBills";
+    private static final int RECENT_BILLS_KEPT = 16;
+    // Every in-place update bumps @Version so a save() of a copy read before it fails
+    private static final String VERSION = "version";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Medicine> decrementStock(String id, String adminId, int quantity) {
+        return decrement(Criteria.where("_id").is(id), adminId, quantity);
+    }
+
+    @Override
+    public Optional<Medicine> decrementStockByName(String name, String adminId, int quantity) {
+        return decrement(Criteria.where("name").is(name), adminId, quantity);
+    }
+
+    @Override
+    public boolean decrementStockBulk(String adminId, String billId, Map<String, Integer> quantitiesById) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Medicine.class);
+        quantitiesById.forEach((id, quantity) -> bulk.updateOne(
+                sellable(Criteria.where("_id").is(id), adminId, quantity),
+                new Update().inc("quantity", -quantity).inc(VERSION, 1).push(RECENT_BILLS).slice(-RECENT_BILLS_KEPT).each(billId)));
+        if (bulk.execute().getModifiedCount() == quantitiesById.size()) {
+            return true;
+        }
+
+        // Some line lost a race since validation: put back the ones that did apply
+        Query applied = Query.query(Criteria.where("_id").in(quantitiesById.keySet()).and(RECENT_BILLS).is(billId));
+        applied.fields().include("_id");
+        List<Medicine> toRestore = mongoTemplate.find(applied, Medicine.class);
+        if (!toRestore.isEmpty()) {
+            BulkOperations undo = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Medicine.class);
+            for (Medicine medicine : toRestore) {
+                undo.updateOne(Query.query(Criteria.where("_id").is(medicine.getId())),
+                        new Update().inc("quantity", quantitiesById.get(medicine.getId())).inc(VERSION, 1)
+                                .pull(RECENT_BILLS, billId));
+            }
+            undo.execute();
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<Medicine> patch(String id, String adminId, MedicinePatch patch, LocalDate today) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(patchTarget(id, adminId, patch),
+                patchUpdate(patch, today), FindAndModifyOptions.options().returnNew(true), Medicine.class));
+    }
+
+    @Override
+    public BulkWriteResult patchAll(String adminId, Collection<MedicinePatch> patches, LocalDate today) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Medicine.class);
+        for (MedicinePatch patch : patches) {
+            bulk.updateOne(patchTarget(patch.getId(), adminId, patch), patchUpdate(patch, today));
+        }
+        return bulk.execute();
+    }
+
+    @Override
+    public BulkWriteResult upsertByName(String adminId, Collection<Medicine> medicines, LocalDate today) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Medicine.class);
+        for (Medicine medicine : medicines) {
+            // Served by admin_name_id; the query's equality fields become the new document's keys
+            Query key = Query.query(Criteria.where("adminId").is(adminId).and("name").is(medicine.getName()));
+            Update update = new Update()
+                    .set("description", medicine.getDescription())
+                    .set("price", medicine.getPrice())
+                    .set("quantity", medicine.getQuantity())
+                    .set("expiryDate", medicine.getExpiryDate())
+                    .set("expired", medicine.getExpiryDate() != null && medicine.getExpiryDate().isBefore(today))
+                    .inc(VERSION, 1);
+            bulk.upsert(key, update);
+        }
+        return bulk.execute();
+    }
+
+    @Override
+    public boolean hasUniqueNameIndex() {
+        return mongoTemplate.indexOps(Medicine.class).getIndexInfo().stream()
+                .anyMatch(index -> UNIQUE_NAME_INDEX.equals(index.getName()) && index.isUnique());
+    }
+
+    @Override
+    public boolean deleteIfOutOfStock(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id).and("quantity").lte(0));
+        return mongoTemplate.remove(query, Medicine.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public long deleteIfOutOfStock(Collection<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids).and("quantity").lte(0));
+        return mongoTemplate.remove(query, Medicine.class).getDeletedCount();
+    }
+
+    @Override
+    public List<Medicine> findPageAfter(String adminId, String name, String id, int limit) {
+        return mongoTemplate.find(pageAfter(adminId, name, id, limit), Medicine.class);
+    }
+
+    @Override
+    public List<MedicineRow> findRowsAfter(String adminId, String name, String id, int limit) {
+        // DTO projection: the driver is asked for the record's fields only
+        return mongoTemplate.query(Medicine.class).as(MedicineRow.class)
+                .matching(pageAfter(adminId, name, id, limit)).all();
+    }
+
+    @Override
+    public List<Medicine> findFiltered(String adminId, MedicineFilter filter, LocalDate today, Pageable pageable) {
+        Criteria criteria = filtered(adminId, filter);
+        if (filter.getStatus() != null) {
+            criteria.andOperator(statusCriteria(filter.getStatus(), today));
+        }
+        return mongoTemplate.find(Query.query(criteria).with(pageable), Medicine.class);
+    }
+
+    @Override
+    public StatusCounts countByStatus(String adminId, MedicineFilter filter, LocalDate today) {
+        // Same representation Mongo stores LocalDate fields in, as expressions bypass the query mapper
+        Object todayValue = mongoTemplate.getConverter().convertToMongoType(today);
+        AggregationExpression expired = BooleanOperators.Or.or(
+                ComparisonOperators.valueOf("expired").equalToValue(true),
+                BooleanOperators.And.and(
+                        ComparisonOperators.Eq.valueOf(DataTypeOperators.Type.typeOf("expiryDate")).equalToValue("date"),
+                        ComparisonOperators.valueOf("expiryDate").lessThanValue(todayValue)));
+        AggregationExpression sellable = BooleanOperators.And.and(
+                BooleanOperators.Not.not(expired),
+                ComparisonOperators.valueOf("quantity").greaterThanValue(0));
+        AggregationExpression lowStock = BooleanOperators.And.and(sellable,
+                ComparisonOperators.valueOf("quantity").lessThanEqualToValue(StockStatus.LOW_STOCK_THRESHOLD));
+        AggregationExpression outOfStock = ComparisonOperators.valueOf("quantity").lessThanEqualToValue(0);
+
+        Aggregation aggregation = Aggregation.newAggregation(Medicine.class,
+                Aggregation.match(filtered(adminId, filter)),
+                Aggregation.group()
+                        .count().as("total")
+                        .sum(oneIf(sellable)).as(StockStatus.AVAILABLE.name())
+                        .sum(oneIf(lowStock)).as(StockStatus.LOW_STOCK.name())
+                        .sum(oneIf(outOfStock)).as(StockStatus.OUT_OF_STOCK.name())
+                        .sum(oneIf(expired)).as(StockStatus.EXPIRED.name()));
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+
+        Map<StockStatus, Long> byStatus = new EnumMap<>(StockStatus.class);
+        for (StockStatus status : StockStatus.values()) {
+            byStatus.put(status, result == null ? 0L : ((Number) result.get(status.name())).longValue());
+        }
+        return new StatusCounts(result == null ? 0L : ((Number) result.get("total")).longValue(), byStatus);
+    }
+
+    @Override
+    public List<Medicine> findUnexpiredAfter(String adminId, String id, int limit) {
+        Criteria criteria = Criteria.where("expired").ne(true);
+        if (adminId != null) {
+            criteria.and("adminId").is(adminId);
+        }
+        if (id != null) {
+            criteria.and("_id").gt(id);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Medicine.class);
+    }
+
+    @Override
+    public List<Medicine> findExpiringBetween(String adminId, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("adminId").is(adminId)
+                        .and("expiryDate").gte(from).lte(to))
+                .with(Sort.by(Sort.Direction.ASC, "expiryDate", "_id"));
+        return mongoTemplate.find(query, Medicine.class);
+    }
+
+    @Override
+    public UpdateResult markExpired(LocalDate today) {
+        // expired is always written, so equality plus a range on expiryDate stays on the expired_expiryDate index
+        Query query = Query.query(Criteria.where("expired").is(false).and("expiryDate").lt(today));
+        return mongoTemplate.updateMulti(query, new Update().set("expired", true).inc(VERSION, 1), Medicine.class);
+    }
+
+    @Override
+    public UpdateResult markExpired(Collection<String> ids, LocalDate today) {
+        Query query = Query.query(Criteria.where("_id").in(ids)
+                .and("expired").is(false)
+                .and("expiryDate").lt(today));
+        return mongoTemplate.updateMulti(query, new Update().set("expired", true).inc(VERSION, 1), Medicine.class);
+    }
+
+    private Optional<Medicine> decrement(Criteria key, String adminId, int quantity) {
+        Update update = new Update().inc("quantity", -quantity).inc(VERSION, 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(sellable(key, adminId, quantity), update,
+                FindAndModifyOptions.options().returnNew(true), Medicine.class));
+    }
+
+    private Query sellable(Criteria key, String adminId, int quantity) {
+        return Query.query(key
+                .and("adminId").is(adminId)
+                .and("quantity").gte(quantity)
+                .and("expired").ne(true)
+                .andOperator(notExpiredOn(LocalDate.now())));
+    }
+
+    private Query pageAfter(String adminId, String name, String id, int limit) {
+        Criteria criteria = Criteria.where("adminId").is(adminId);
+        if (name != null && id != null) {
+            criteria.orOperator(
+                    Criteria.where("name").gt(name),
+                    Criteria.where("name").is(name).and("_id").gt(id));
+        }
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "name", "_id"))
+                .limit(limit);
+    }
+
+    private Query patchTarget(String id, String adminId, MedicinePatch patch) {
+        Criteria criteria = Criteria.where("_id").is(id).and("adminId").is(adminId);
+        if (patch.getQuantityDelta() != null && patch.getQuantityDelta() < 0) {
+            criteria.and("quantity").gte(-patch.getQuantityDelta());
+        }
+        return Query.query(criteria);
+    }
+
+    private Update patchUpdate(MedicinePatch patch, LocalDate today) {
+        Update update = new Update().inc(VERSION, 1);
+        if (patch.getName() != null) {
+            update.set("name", patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            update.set("description", patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            update.set("price", patch.getPrice());
+        }
+        if (patch.getQuantity() != null) {
+            update.set("quantity", patch.getQuantity());
+        }
+        if (patch.getQuantityDelta() != null) {
+            update.inc("quantity", patch.getQuantityDelta());
+        }
+        if (patch.getExpiryDate() != null) {
+            update.set("expiryDate", patch.getExpiryDate());
+            update.set("expired", patch.getExpiryDate().isBefore(today));
+        }
+        return update;
+    }
+
+    // Tenant plus the price and quantity bounds, all on the adminId-prefixed indexes
+    private Criteria filtered(String adminId, MedicineFilter filter) {
+        Criteria criteria = Criteria.where("adminId").is(adminId);
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            Criteria price = criteria.and("price");
+            if (filter.getMinPrice() != null) {
+                price.gte(filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                price.lte(filter.getMaxPrice());
+            }
+        }
+        if (filter.getMaxQuantity() != null) {
+            criteria.and("quantity").lte(filter.getMaxQuantity());
+        }
+        return criteria;
+    }
+
+    // Query form of the status rules; countByStatus mirrors them as aggregation expressions
+    private Criteria statusCriteria(StockStatus status, LocalDate today) {
+        return switch (status) {
+            case EXPIRED -> new Criteria().orOperator(
+                    Criteria.where("expired").is(true),
+                    Criteria.where("expiryDate").lt(today));
+            case OUT_OF_STOCK -> Criteria.where("quantity").lte(0);
+            case AVAILABLE -> new Criteria().andOperator(
+                    Criteria.where("expired").ne(true),
+                    notExpiredOn(today),
+                    Criteria.where("quantity").gt(0));
+            case LOW_STOCK -> new Criteria().andOperator(
+                    Criteria.where("expired").ne(true),
+                    notExpiredOn(today),
+                    Criteria.where("quantity").gt(0).lte(StockStatus.LOW_STOCK_THRESHOLD));
+        };
+    }
+
+    private static AggregationExpression oneIf(AggregationExpression condition) {
+        return ConditionalOperators.when(condition).then(1).otherwise(0);
+    }
+
+    private Criteria notExpiredOn(LocalDate today) {
+        return new Criteria().orOperator(
+                Criteria.where("expiryDate").is(null),
+                Criteria.where("expiryDate").gte(today));
+    }
+}
@@ -5,9 +5,15 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SaleRepository extends MongoRepository<Sale, String> {
+public interface SaleRepository extends MongoRepository<Sale, String>, SaleRepositoryCustom {
     java.util.List<Sale> findByAdminId(String adminId);
 
     org.springframework.data.domain.Page<Sale> findByAdminId(String adminId,
             org.springframework.data.domain.Pageable pageable);
+
+    long countByAdminId(String adminId);
+
+    java.util.Optional<Sale> findByIdAndAdminId(String id, String adminId);
+
+    java.util.List<Sale> findByAdminIdAndBillId(String adminId, String billId);
 }
@@ -0,0 +1,37 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.dto.SaleRow;
+import com.pharmacy.management.model.DeliveryStatus;
+import com.pharmacy.management.model.Sale;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface SaleRepositoryCustom {
+
+    /**
+     * Records the invoice delivery outcome on the sales of one bill with a single
+     * $set, leaving the rest of the documents untouched.
+     */
+    void updateDeliveryStatus(Collection<String> saleIds, DeliveryStatus status, int attempts, String error);
+
+    /**
+     * Keyset page of an admin's sales, newest first, ordered by (saleDate, _id)
+     * descending. Pass null for both keys to start at the top.
+     */
+    List<Sale> findPageAfter(String adminId, LocalDateTime saleDate, String id, int limit);
+
+    /**
+     * Same page as {@link #findPageAfter(String, LocalDateTime, String, int)}
+     * but only reads the columns of {@link SaleRow}.
+     */
+    List<SaleRow> findRowsAfter(String adminId, LocalDateTime saleDate, String id, int limit);
+
+    /**
+     * Cursor-backed stream of an admin's sales in [from, to), oldest first. Either
+     * bound may be null. The caller must close the stream.
+     */
+    Stream<Sale> streamByAdminId(String adminId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,75 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.dto.SaleRow;
+import com.pharmacy.management.model.DeliveryStatus;
+import com.pharmacy.management.model.Sale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SaleRepositoryImpl implements SaleRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void updateDeliveryStatus(Collection<String> saleIds, DeliveryStatus status, int attempts, String error) {
+        Update update = new Update()
+                .set("deliveryStatus", status)
+                .set("deliveryAttempts", attempts)
+                .set("deliveryError", error)
+                .inc("version", 1);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(saleIds)), update, Sale.class);
+    }
+
+    @Override
+    public List<Sale> findPageAfter(String adminId, LocalDateTime saleDate, String id, int limit) {
+        return mongoTemplate.find(pageAfter(adminId, saleDate, id, limit), Sale.class);
+    }
+
+    @Override
+    public List<SaleRow> findRowsAfter(String adminId, LocalDateTime saleDate, String id, int limit) {
+        return mongoTemplate.query(Sale.class).as(SaleRow.class)
+                .matching(pageAfter(adminId, saleDate, id, limit)).all();
+    }
+
+    @Override
+    public Stream<Sale> streamByAdminId(String adminId, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = Criteria.where("adminId").is(adminId);
+        if (from != null || to != null) {
+            Criteria range = criteria.and("saleDate");
+            if (from != null) {
+                range.gte(from);
+            }
+            if (to != null) {
+                range.lt(to);
+            }
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "saleDate", "_id"))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Sale.class);
+    }
+
+    private Query pageAfter(String adminId, LocalDateTime saleDate, String id, int limit) {
+        Criteria criteria = Criteria.where("adminId").is(adminId);
+        if (saleDate != null && id != null) {
+            criteria.orOperator(
+                    Criteria.where("saleDate").lt(saleDate),
+                    Criteria.where("saleDate").is(saleDate).and("_id").lt(id));
+        }
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "saleDate", "_id"))
+                .limit(limit);
+    }
+}
@@ -0,0 +1,16 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.model.SalesRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends MongoRepository<SalesRollup, String>, SalesRollupRepositoryCustom {
+
+    List<SalesRollup> findByAdminIdAndScope(String adminId, SalesRollup.Scope scope);
+
+    List<SalesRollup> findByAdminIdAndScopeAndKeyGreaterThanEqualOrderByKeyAsc(String adminId,
+            SalesRollup.Scope scope, String fromKey);
+}
@@ -0,0 +1,22 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.model.Sale;
+
+import java.util.List;
+
+public interface SalesRollupRepositoryCustom {
+
+    /**
+     * Folds the given sales into the daily, per-medicine and all-time rollups
+     * with one unordered bulk of $inc upserts.
+     */
+    void increment(List<Sale> sales);
+
+    /**
+     * Recomputes every rollup of one admin from the raw sales collection. Used
+     * to backfill history recorded before rollups existed. Not safe against
+     * sales being recorded for the same admin meanwhile; go through
+     * SalesSummaryService, which holds them off.
+     */
+    void rebuild(String adminId);
+}
@@ -0,0 +1,103 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.SalesRollup;
+import com.pharmacy.management.model.SalesRollup.Scope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class SalesRollupRepositoryImpl implements SalesRollupRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(List<Sale> sales) {
+        Map<String, SalesRollup> deltas = fold(sales);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class);
+        for (SalesRollup delta : deltas.values()) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getId())), new Update()
+                    .setOnInsert("adminId", delta.getAdminId())
+                    .setOnInsert("scope", delta.getScope())
+                    .setOnInsert("key", delta.getKey())
+                    .inc("saleCount", delta.getSaleCount())
+                    .inc("quantity", delta.getQuantity())
+                    .inc("revenue", delta.getRevenue()));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Overwrites each rollup with the re-summed figures in place and then
+     * drops the ones no sale maps to any more, so the dashboard never reads
+     * an empty collection mid-rebuild.
+     */
+    @Override
+    public void rebuild(String adminId) {
+        Map<String, SalesRollup> totals = new LinkedHashMap<>();
+        Query query = Query.query(Criteria.where("adminId").is(adminId));
+        query.fields().include("adminId", "medicineName", "quantity", "totalPrice", "saleDate");
+        try (Stream<Sale> sales = mongoTemplate.stream(query, Sale.class)) {
+            sales.forEach(sale -> add(totals, sale));
+        }
+
+        if (!totals.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class);
+            for (SalesRollup total : totals.values()) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(total.getId())), new Update()
+                        .set("adminId", total.getAdminId())
+                        .set("scope", total.getScope())
+                        .set("key", total.getKey())
+                        .set("saleCount", total.getSaleCount())
+                        .set("quantity", total.getQuantity())
+                        .set("revenue", total.getRevenue()));
+            }
+            bulk.execute();
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("adminId").is(adminId).and("_id").nin(totals.keySet())),
+                SalesRollup.class);
+    }
+
+    private Map<String, SalesRollup> fold(List<Sale> sales) {
+        Map<String, SalesRollup> deltas = new LinkedHashMap<>();
+        for (Sale sale : sales) {
+            add(deltas, sale);
+        }
+        return deltas;
+    }
+
+    private void add(Map<String, SalesRollup> rollups, Sale sale) {
+        if (sale.getSaleDate() != null) {
+            add(rollups, sale, Scope.DAY, sale.getSaleDate().toLocalDate().toString());
+        }
+        add(rollups, sale, Scope.MEDICINE, sale.getMedicineName());
+        add(rollups, sale, Scope.TOTAL, SalesRollup.TOTAL_KEY);
+    }
+
+    private void add(Map<String, SalesRollup> rollups, Sale sale, Scope scope, String key) {
+        String id = SalesRollup.idOf(sale.getAdminId(), scope, key);
+        SalesRollup rollup = rollups.computeIfAbsent(id, k -> {
+            SalesRollup r = new SalesRollup();
+            r.setId(k);
+            r.setAdminId(sale.getAdminId());
+            r.setScope(scope);
+            r.setKey(key);
+            return r;
+        });
+        rollup.setSaleCount(rollup.getSaleCount() + 1);
+        rollup.setQuantity(rollup.getQuantity() + sale.getQuantity());
+        rollup.setRevenue(rollup.getRevenue() + sale.getTotalPrice());
+    }
+}
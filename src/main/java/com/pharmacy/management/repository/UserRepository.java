@@ -5,7 +5,7 @@ import com.pharmacy.management.model.Role; // Added import for Role
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.Optional;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
@@ -0,0 +1,10 @@
+package com.pharmacy.management.repository;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Atomically bumps the user's token version with a single $inc and returns
+     * the new value, or 0 if there is no such user.
+     */
+    int incrementTokenVersion(String username);
+}
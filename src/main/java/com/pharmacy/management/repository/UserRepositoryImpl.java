@@ -0,0 +1,26 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String TOKEN_VERSION = "tokenVersion";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public int incrementTokenVersion(String username) {
+        Query query = Query.query(Criteria.where("username").is(username));
+        query.fields().include(TOKEN_VERSION);
+        User updated = mongoTemplate.findAndModify(query, new Update().inc(TOKEN_VERSION, 1),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        return updated == null ? 0 : updated.getTokenVersion();
+    }
+}
@@ -0,0 +1,82 @@
+package com.pharmacy.management.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-user token version used to revoke issued JWTs. Tokens carry the version
+ * current at login; bumping it invalidates every older token for that user.
+ * <p>
+ * The version is stored on the user document, so a restart neither revokes
+ * live tokens nor brings revoked ones back. Lookups are cached for
+ * {@code jwt.version-cache-ttl-ms}, which is also how long another instance
+ * may keep accepting a token revoked elsewhere.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.version-cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${jwt.version-cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    private Cache<String, Integer> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+    }
+
+    public int currentVersion(String username) {
+        Integer cached = versions.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        // Loaded outside the cache's compute so the Mongo read never runs under a bin lock
+        return issueVersion(username);
+    }
+
+    /**
+     * The version to put in a new token, read from the user document so a
+     * login never carries a version another instance has already revoked.
+     */
+    public int issueVersion(String username) {
+        int stored = userRepository.findByUsername(username).map(User::getTokenVersion).orElse(0);
+        return remember(username, stored);
+    }
+
+    /**
+     * A token is valid at the cached version or above; a newer one was issued
+     * after a revocation this instance has not picked up yet.
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        return tokenVersion >= currentVersion(username);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far.
+     */
+    public void revokeAll(String username) {
+        remember(username, userRepository.incrementTokenVersion(username));
+    }
+
+    // Versions only go up, so a slow load can never overwrite a newer revocation
+    private int remember(String username, int version) {
+        return versions.asMap().merge(username, version, Math::max);
+    }
+}
@@ -1,10 +1,7 @@
 package com.pharmacy.management.service;
 
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Paragraph;
 import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +10,8 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class EmailService {
@@ -22,28 +19,16 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
-    public void sendBillEmail(String toEmail, Medicine medicine, int quantity, double totalPrice)
-            throws MessagingException, IOException {
-        // Generate PDF
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(outputStream);
-        PdfDocument pdf = new PdfDocument(writer);
-        Document document = new Document(pdf);
-
-        document.add(new Paragraph("Pharmacy Management System - Bill Invoice"));
-        document.add(new Paragraph("------------------------------------------------"));
-        document.add(new Paragraph("Medicine Name: " + medicine.getName()));
-        document.add(new Paragraph("Description: " + medicine.getDescription()));
-        document.add(new Paragraph("Price per Unit: ₹" + medicine.getPrice()));
-        document.add(new Paragraph("Quantity: " + quantity));
-        document.add(new Paragraph("------------------------------------------------"));
-        document.add(new Paragraph("Total Price: ₹" + String.format("%.2f", totalPrice)));
-        document.add(new Paragraph("------------------------------------------------"));
-        document.add(new Paragraph("Thank you for your purchase!"));
-
-        document.close();
-
-        // Send Email with Attachment
+    @Autowired
+    private MailDeliveryService mailDelivery;
+
+    /**
+     * Emails a bill whose PDF was already produced by {@link InvoiceRenderer}.
+     * The message is queued on {@link MailDeliveryService}; the future
+     * completes when the relay has accepted it.
+     */
+    public CompletableFuture<Void> sendBillEmail(String toEmail, Medicine medicine, byte[] invoice)
+            throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
@@ -52,8 +37,23 @@ public class EmailService {
         helper.setText("Dear Customer,\n\nPlease find attached the bill for your recent purchase of "
                 + medicine.getName() + ".\n\nThank you,\nPharmacy Management Team");
 
-        helper.addAttachment("Bill_" + medicine.getName() + ".pdf", new ByteArrayResource(outputStream.toByteArray()));
+        helper.addAttachment("Bill_" + medicine.getName() + ".pdf", new ByteArrayResource(invoice));
+
+        return mailDelivery.send(message);
+    }
+
+    public CompletableFuture<Void> sendCartBillEmail(String toEmail, List<Sale> lines, byte[] invoice)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+
+        helper.setTo(toEmail);
+        helper.setSubject("Your Pharmacy Bill - " + lines.size() + " items");
+        helper.setText("Dear Customer,\n\nPlease find attached the bill for your recent purchase.\n\n"
+                + "Thank you,\nPharmacy Management Team");
+
+        helper.addAttachment("Bill_" + lines.get(0).getBillId() + ".pdf", new ByteArrayResource(invoice));
 
-        mailSender.send(message);
+        return mailDelivery.send(message);
     }
 }
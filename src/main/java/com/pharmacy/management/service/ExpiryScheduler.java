@@ -0,0 +1,154 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.config.CacheConfig;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flips medicines to expired right at midnight instead of waiting for the
+ * daily batch. Upcoming expiry dates are kept in a {@link TimingWheel},
+ * loaded once at startup and kept current by the medicine write paths, so
+ * the midnight tick only touches the items that actually expire that day.
+ * The expiry batch job still runs and reconciles anything missed, such as
+ * changes made directly in the database.
+ */
+@Service
+public class ExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryScheduler.class);
+    private static final int LOAD_PAGE_SIZE = 500;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // ReentrantLock rather than synchronized so virtual threads never pin on it
+    private final ReentrantLock lock = new ReentrantLock();
+    private TimingWheel<Tracked> wheel = new TimingWheel<>(LocalDate.now().toEpochDay());
+    // Latest change per medicine made before or during a load, replayed onto the loaded wheel; null once loaded
+    private Map<String, Consumer<TimingWheel<Tracked>>> pendingChanges = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.lock();
+        try {
+            if (pendingChanges == null) {
+                pendingChanges = new HashMap<>();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        TimingWheel<Tracked> loaded = new TimingWheel<>(LocalDate.now().toEpochDay());
+        String lastId = null;
+        List<Medicine> page;
+        do {
+            page = medicineRepository.findUnexpiredAfter(null, lastId, LOAD_PAGE_SIZE);
+            for (Medicine medicine : page) {
+                if (medicine.getExpiryDate() != null) {
+                    loaded.schedule(medicine.getId(), expiresOn(medicine), new Tracked(medicine.getId(), medicine.getAdminId()));
+                }
+                lastId = medicine.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        lock.lock();
+        try {
+            // Writes that raced the paging may be missing from, or newer than, what was read
+            pendingChanges.values().forEach(change -> change.accept(loaded));
+            pendingChanges = null;
+            wheel = loaded;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Expiry scheduler tracking {} medicines", loaded.size());
+    }
+
+    /**
+     * (Re)schedules a medicine after it was added or edited.
+     */
+    public void track(Medicine medicine) {
+        if (medicine.isExpired() || medicine.getExpiryDate() == null) {
+            untrack(medicine.getId());
+            return;
+        }
+        long day = expiresOn(medicine);
+        Tracked tracked = new Tracked(medicine.getId(), medicine.getAdminId());
+        apply(medicine.getId(), wheel -> wheel.schedule(tracked.id(), day, tracked));
+    }
+
+    public void untrack(String medicineId) {
+        apply(medicineId, wheel -> wheel.cancel(medicineId));
+    }
+
+    private void apply(String medicineId, Consumer<TimingWheel<Tracked>> change) {
+        lock.lock();
+        try {
+            change.accept(wheel);
+            if (pendingChanges != null) {
+                pendingChanges.put(medicineId, change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTrackedCount() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void tick() {
+        LocalDate today = LocalDate.now();
+        List<Tracked> due;
+        lock.lock();
+        try {
+            due = wheel.advanceTo(today.toEpochDay());
+        } finally {
+            lock.unlock();
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        long modified = medicineRepository.markExpired(due.stream().map(Tracked::id).toList(), today)
+                .getModifiedCount();
+        log.info("Marked {} of {} due medicines expired at midnight", modified, due.size());
+
+        Cache inventory = cacheManager.getCache(CacheConfig.INVENTORY);
+        if (inventory != null) {
+            due.stream().map(Tracked::adminId).distinct().forEach(inventory::evict);
+        }
+    }
+
+    // Sellable through its expiry date, expired from the start of the next day
+    private static long expiresOn(Medicine medicine) {
+        return medicine.getExpiryDate().toEpochDay() + 1;
+    }
+
+    private record Tracked(String id, String adminId) {
+    }
+}
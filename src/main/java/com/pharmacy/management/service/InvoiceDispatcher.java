@@ -0,0 +1,240 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.DeliveryStatus;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.repository.SaleRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Renders and emails bill invoices off the request thread. Each invoice is
+ * rendered once on the {@link InvoiceRenderer} pool, then a small bounded
+ * worker pool stores it for re-download, builds the email and queues it on
+ * {@link MailDeliveryService}; failed deliveries are retried with
+ * exponential backoff, re-sending the same PDF, and the final outcome is
+ * recorded on the sale.
+ */
+@Service
+public class InvoiceDispatcher implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceDispatcher.class);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private InvoiceRenderer invoiceRenderer;
+
+    @Autowired
+    private InvoiceStore invoiceStore;
+
+    @Value("${billing.invoice.workers:2}")
+    private int workers;
+
+    @Value("${billing.invoice.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${billing.invoice.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${billing.invoice.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService retryScheduler;
+
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        // These workers store PDFs and build MIME messages; the blocking SMTP I/O
+        // happens on MailDeliveryService's own connection threads.
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("invoice-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("invoice-retry-"));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Invoice queue not drained on shutdown, {} jobs dropped", executor.shutdownNow().size());
+        }
+    }
+
+    /**
+     * Queues the invoice for a recorded sale and returns immediately. If the
+     * queue is full the sale is marked FAILED so it can be re-sent later.
+     */
+    public void dispatch(Sale sale, String toEmail, Medicine medicine) {
+        render(new InvoiceJob(List.of(sale.getId()),
+                () -> invoiceRenderer.renderBillAsync(medicine, sale.getQuantity(), sale.getTotalPrice()),
+                invoice -> emailService.sendBillEmail(toEmail, medicine, invoice)));
+    }
+
+    /**
+     * Queues one consolidated invoice covering every line of a cart bill.
+     */
+    public void dispatchCart(List<Sale> sales, String toEmail) {
+        render(new InvoiceJob(sales.stream().map(Sale::getId).toList(),
+                () -> invoiceRenderer.renderCartAsync(sales),
+                invoice -> emailService.sendCartBillEmail(toEmail, sales, invoice)));
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size() + pendingRetries.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("billing.invoice.queue.depth", this, InvoiceDispatcher::getQueueDepth)
+                .description("Invoices waiting to be rendered and emailed, including scheduled retries")
+                .register(registry);
+        FunctionCounter.builder("billing.invoice.sent", this, InvoiceDispatcher::getSentCount)
+                .register(registry);
+        FunctionCounter.builder("billing.invoice.failed", this, InvoiceDispatcher::getFailedCount)
+                .register(registry);
+    }
+
+    private void render(InvoiceJob job) {
+        job.render.get().whenComplete((invoice, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                log.error("Invoice for sales {} could not be rendered", job.saleIds, cause);
+                markFailed(job, cause.getMessage());
+            } else {
+                job.invoice = invoice;
+                // Hashing and writing the PDF blocks; do it on a worker, not the CPU-sized render pool
+                submit(job, () -> {
+                    store(job);
+                    deliver(job);
+                });
+            }
+        });
+    }
+
+    // Kept for re-download; a failure here must not hold up the email
+    private void store(InvoiceJob job) {
+        try {
+            invoiceStore.put(job.saleIds, job.invoice);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not store invoice for sales {}", job.saleIds, e);
+        }
+    }
+
+    private void submit(InvoiceJob job, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Invoice queue full, sales {} not emailed", job.saleIds);
+            markFailed(job, "Invoice queue is full");
+        }
+    }
+
+    private void deliver(InvoiceJob job) {
+        job.attempts++;
+        CompletableFuture<Void> sent;
+        try {
+            sent = job.delivery.send(job.invoice);
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        // Completes on a mail connection thread; the status write is one _id-keyed update
+        sent.whenComplete((ignored, error) -> {
+            if (error == null) {
+                sentCount.incrementAndGet();
+                saleRepository.updateDeliveryStatus(job.saleIds, DeliveryStatus.SENT, job.attempts, null);
+            } else {
+                retryOrFail(job, unwrap(error));
+            }
+        });
+    }
+
+    private void retryOrFail(InvoiceJob job, Throwable e) {
+        if (job.attempts < maxAttempts && !retryScheduler.isShutdown()) {
+            long delay = retryBackoffMs << (job.attempts - 1);
+            log.info("Invoice for sales {} failed (attempt {}), retrying in {} ms: {}",
+                    job.saleIds, job.attempts, delay, e.getMessage());
+            pendingRetries.incrementAndGet();
+            retryScheduler.schedule(() -> {
+                pendingRetries.decrementAndGet();
+                submit(job, () -> deliver(job));
+            }, delay, TimeUnit.MILLISECONDS);
+        } else {
+            log.error("Invoice for sales {} failed after {} attempts", job.saleIds, job.attempts, e);
+            markFailed(job, e.getMessage());
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void markFailed(InvoiceJob job, String error) {
+        failedCount.incrementAndGet();
+        try {
+            saleRepository.updateDeliveryStatus(job.saleIds, DeliveryStatus.FAILED, job.attempts, error);
+        } catch (Exception e) {
+            log.error("Could not record delivery failure for sales {}", job.saleIds, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Delivery {
+        CompletableFuture<Void> send(byte[] invoice) throws Exception;
+    }
+
+    private static final class InvoiceJob {
+        private final List<String> saleIds;
+        private final Supplier<CompletableFuture<byte[]>> render;
+        private final Delivery delivery;
+        private byte[] invoice;
+        private int attempts;
+
+        private InvoiceJob(List<String> saleIds, Supplier<CompletableFuture<byte[]>> render, Delivery delivery) {
+            this.saleIds = saleIds;
+            this.render = render;
+            this.delivery = delivery;
+        }
+    }
+}
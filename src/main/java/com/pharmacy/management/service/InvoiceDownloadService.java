@@ -0,0 +1,79 @@
+package com.pharmacy.management.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sends a stored invoice PDF to the client. The blob is content-addressed, so
+ * its hash makes a strong ETag and a revalidating client gets a 304 without
+ * the file being sent. On Tomcat the file goes out with sendfile; elsewhere
+ * through FileChannel.transferTo. Gzip-stored invoices are sent as-is to
+ * clients that accept gzip and inflated for the rest.
+ */
+@Service
+public class InvoiceDownloadService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public void send(String saleId, InvoiceStore.StoredInvoice invoice, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzipped = invoice.compressed() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate()
+                .getHeaderValue());
+        if (invoice.compressed()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // Each encoding is its own representation, so it gets its own tag
+        String etag = "\"" + invoice.hash() + (gzipped ? "-gzip" : "") + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag, invoice.lastModified().toMillis())) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"Invoice_" + saleId + ".pdf\"");
+
+        if (invoice.compressed() && !gzipped) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(invoice.file()))) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLengthLong(invoice.size());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat streams the file from the page cache once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, invoice.file().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, invoice.size());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(invoice.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < invoice.size()) {
+                position += channel.transferTo(position, invoice.size() - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.pharmacy.management.service;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Renders bill invoices to PDF. Font programs are parsed once at startup and
+ * the fixed template text is drawn straight onto the page canvas, so a render
+ * skips the layout engine entirely. Output is written into pooled buffers that
+ * are reused across renders; the caller gets one right-sized copy.
+ * <p>
+ * The async variants run on a small bounded pool of their own so a burst of
+ * bills cannot starve request or mail threads; render time and size are
+ * published as {@code billing.invoice.render} and {@code billing.invoice.size}.
+ */
+@Service
+public class InvoiceRenderer implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceRenderer.class);
+
+    static final String TITLE = "Pharmacy Management System - Bill Invoice";
+    static final String RULE = "------------------------------------------------";
+    static final String THANKS = "Thank you for your purchase!";
+    // The standard PDF fonts have no rupee glyph; the old layout silently dropped it
+    static final String CURRENCY = "Rs. ";
+
+    private static final float MARGIN = 36;
+    private static final float TITLE_SIZE = 14;
+    private static final float BODY_SIZE = 11;
+    private static final float LEADING = 16;
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+    // A buffer grown past this by an unusually long cart is left to the GC
+    private static final int MAX_POOLED_BUFFER_BYTES = 256 * 1024;
+
+    @Value("${billing.invoice.render-threads:2}")
+    private int renderThreads;
+
+    @Value("${billing.invoice.render-queue-capacity:500}")
+    private int renderQueueCapacity;
+
+    @Value("${billing.invoice.buffer-pool-size:8}")
+    private int bufferPoolSize;
+
+    private FontProgram regularFont;
+    private FontProgram boldFont;
+    private BlockingQueue<InvoiceBuffer> buffers;
+    private ThreadPoolExecutor executor;
+
+    private volatile Timer billTimer;
+    private volatile Timer cartTimer;
+    private volatile DistributionSummary sizeSummary;
+
+    @PostConstruct
+    public void start() throws IOException {
+        regularFont = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        boldFont = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        buffers = new ArrayBlockingQueue<>(bufferPoolSize);
+        // CPU-bound work, so platform threads sized well below the core count
+        executor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(renderQueueCapacity), new CustomizableThreadFactory("invoice-render-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Invoice render queue not drained on shutdown, {} renders dropped",
+                    executor.shutdownNow().size());
+        }
+    }
+
+    /**
+     * Renders a single-medicine bill on the render pool. Completes
+     * exceptionally with {@link RejectedExecutionException} if the queue is full.
+     */
+    public CompletableFuture<byte[]> renderBillAsync(Medicine medicine, int quantity, double totalPrice) {
+        return async(() -> renderBill(medicine, quantity, totalPrice));
+    }
+
+    public CompletableFuture<byte[]> renderCartAsync(List<Sale> lines) {
+        return async(() -> renderCart(lines));
+    }
+
+    /**
+     * Renders a single-medicine bill on the calling thread.
+     */
+    public byte[] renderBill(Medicine medicine, int quantity, double totalPrice) {
+        List<String> body = List.of(
+                RULE,
+                "Medicine Name: " + medicine.getName(),
+                "Description: " + (medicine.getDescription() == null ? "" : medicine.getDescription()),
+                "Price per Unit: " + CURRENCY + medicine.getPrice(),
+                "Quantity: " + quantity,
+                RULE,
+                "Total Price: " + CURRENCY + money(totalPrice),
+                RULE,
+                THANKS);
+        return render(body, billTimer);
+    }
+
+    /**
+     * Renders one invoice for every line of a cart bill, continuing onto
+     * further pages when the lines do not fit on one.
+     */
+    public byte[] renderCart(List<Sale> lines) {
+        List<String> body = new ArrayList<>(lines.size() + 5);
+        body.add(RULE);
+        double grandTotal = 0;
+        for (Sale line : lines) {
+            body.add(line.getMedicineName() + "  x" + line.getQuantity()
+                    + "  @ " + CURRENCY + line.getPricePerUnit()
+                    + "  = " + CURRENCY + money(line.getTotalPrice()));
+            grandTotal += line.getTotalPrice();
+        }
+        body.add(RULE);
+        body.add("Total Price: " + CURRENCY + money(grandTotal));
+        body.add(RULE);
+        body.add(THANKS);
+        return render(body, cartTimer);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getIdleBuffers() {
+        return buffers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        billTimer = renderTimer(registry, "bill");
+        cartTimer = renderTimer(registry, "cart");
+        sizeSummary = DistributionSummary.builder("billing.invoice.size")
+                .description("Size of rendered invoice PDFs")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("billing.invoice.render.queue.depth", this, InvoiceRenderer::getQueueDepth)
+                .description("Invoices waiting for a render thread")
+                .register(registry);
+        Gauge.builder("billing.invoice.render.buffers.idle", this, InvoiceRenderer::getIdleBuffers)
+                .description("Pooled output buffers ready for reuse")
+                .register(registry);
+    }
+
+    private static Timer renderTimer(MeterRegistry registry, String type) {
+        return Timer.builder("billing.invoice.render")
+                .description("Time to render one invoice PDF")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private CompletableFuture<byte[]> async(Supplier<byte[]> render) {
+        try {
+            return CompletableFuture.supplyAsync(render, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Invoice render queue is full"));
+        }
+    }
+
+    private byte[] render(List<String> body, Timer timer) {
+        long start = System.nanoTime();
+        InvoiceBuffer buffer = borrow();
+        try {
+            // BEST_SPEED: these are a page of text, the extra deflate effort buys a few hundred bytes
+            PdfWriter writer = new PdfWriter(buffer,
+                    new WriterProperties().setCompressionLevel(CompressionConstants.BEST_SPEED));
+            try (PdfDocument pdf = new PdfDocument(writer)) {
+                draw(pdf, body);
+            }
+            byte[] invoice = buffer.toByteArray();
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                sizeSummary.record(invoice.length);
+            }
+            return invoice;
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private void draw(PdfDocument pdf, List<String> body) {
+        // PdfFont instances belong to one document; building them from a parsed program is cheap
+        PdfFont regular = PdfFontFactory.createFont(regularFont, PdfEncodings.WINANSI);
+        PdfFont bold = PdfFontFactory.createFont(boldFont, PdfEncodings.WINANSI);
+        float top = PageSize.A4.getTop() - MARGIN - TITLE_SIZE;
+        int linesPerPage = (int) ((top - MARGIN) / LEADING);
+        List<String> lines = wrap(body, regular, PageSize.A4.getWidth() - 2 * MARGIN);
+
+        int next = 0;
+        do {
+            PdfCanvas canvas = new PdfCanvas(pdf.addNewPage(PageSize.A4));
+            canvas.beginText()
+                    .setFontAndSize(bold, TITLE_SIZE)
+                    .moveText(MARGIN, top)
+                    .showText(TITLE)
+                    .setFontAndSize(regular, BODY_SIZE)
+                    .setLeading(LEADING);
+            int end = Math.min(lines.size(), next + linesPerPage);
+            for (; next < end; next++) {
+                canvas.newlineShowText(lines.get(next));
+            }
+            canvas.endText().release();
+        } while (next < lines.size());
+    }
+
+    /**
+     * Breaks lines wider than {@code width} at spaces, and a single word wider
+     * than the page at whatever character fills it, since text shown on the
+     * canvas is never wrapped for us.
+     */
+    static List<String> wrap(List<String> body, PdfFont font, float width) {
+        List<String> lines = new ArrayList<>(body.size());
+        for (String line : body) {
+            if (font.getWidth(line, BODY_SIZE) <= width) {
+                lines.add(line);
+                continue;
+            }
+            StringBuilder current = new StringBuilder();
+            for (String word : line.split(" ")) {
+                String candidate = current.isEmpty() ? word : current + " " + word;
+                if (font.getWidth(candidate, BODY_SIZE) <= width) {
+                    current.setLength(0);
+                    current.append(candidate);
+                    continue;
+                }
+                if (!current.isEmpty()) {
+                    lines.add(current.toString());
+                    current.setLength(0);
+                }
+                for (char c : word.toCharArray()) {
+                    if (!current.isEmpty() && font.getWidth(current.toString() + c, BODY_SIZE) > width) {
+                        lines.add(current.toString());
+                        current.setLength(0);
+                    }
+                    current.append(c);
+                }
+            }
+            if (!current.isEmpty()) {
+                lines.add(current.toString());
+            }
+        }
+        return lines;
+    }
+
+    private InvoiceBuffer borrow() {
+        InvoiceBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new InvoiceBuffer(INITIAL_BUFFER_BYTES);
+    }
+
+    private void release(InvoiceBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_BYTES) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    private static String money(double amount) {
+        return String.format(Locale.ROOT, "%.2f", amount);
+    }
+
+    /**
+     * ByteArrayOutputStream that keeps its grown array across {@code reset()}.
+     */
+    private static final class InvoiceBuffer extends ByteArrayOutputStream {
+
+        InvoiceBuffer(int size) {
+            super(size);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
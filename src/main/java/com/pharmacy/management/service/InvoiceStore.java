@@ -0,0 +1,279 @@
+package com.pharmacy.management.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered invoices on local disk, so a bill can be downloaded again without
+ * re-rendering it. PDFs are stored once under the SHA-256 of their bytes
+ * ({@code objects/ab/ab12...pdf}, gzipped with a {@code .gz} suffix when
+ * {@code billing.invoice.store.compress} is on) and each sale id gets a tiny
+ * ref file naming its blob, so every line of a cart bill shares one file.
+ * <p>
+ * Files are written to a temp name and atomically renamed, so readers never
+ * see a partial invoice. An hourly sweep deletes blobs older than
+ * {@code max-age-days}, then the oldest until the store fits in
+ * {@code max-bytes}, then any refs left pointing at nothing.
+ */
+@Service
+public class InvoiceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceStore.class);
+
+    static final String PDF = ".pdf";
+    static final String GZIP = ".gz";
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final Duration TEMP_FILE_GRACE = Duration.ofHours(1);
+    private static final Pattern SALE_ID = Pattern.compile("[A-Za-z0-9_-]{2,64}");
+
+    @Value("${billing.invoice.store.path:./data/invoices}")
+    private String storePath;
+
+    @Value("${billing.invoice.store.compress:false}")
+    private boolean compress;
+
+    @Value("${billing.invoice.store.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${billing.invoice.store.max-age-days:365}")
+    private int maxAgeDays;
+
+    private Path objects;
+    private Path refs;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * A stored invoice: {@code file} is the blob on disk, gzipped when
+     * {@code compressed}, and {@code hash} the SHA-256 of the PDF itself.
+     */
+    public record StoredInvoice(String hash, Path file, long size, boolean compressed, FileTime lastModified) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(storePath).toAbsolutePath().normalize();
+        objects = Files.createDirectories(root.resolve("objects"));
+        refs = Files.createDirectories(root.resolve("refs"));
+    }
+
+    /**
+     * Stores {@code pdf} and points every one of {@code saleIds} at it. A PDF
+     * already in the store is not written again.
+     */
+    public StoredInvoice put(Collection<String> saleIds, byte[] pdf) throws IOException {
+        String hash = sha256(pdf);
+        String name = hash.substring(0, 2) + "/" + hash + PDF + (compress ? GZIP : "");
+        Path blob = objects.resolve(name);
+        if (Files.notExists(blob)) {
+            Files.createDirectories(blob.getParent());
+            writeAtomically(blob, channel -> {
+                if (compress) {
+                    try (OutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), 8192)) {
+                        out.write(pdf);
+                    }
+                } else {
+                    ByteBuffer buffer = ByteBuffer.wrap(pdf);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            });
+        } else {
+            // A re-stored invoice is in use again; keep it out of the age sweep
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+        }
+        byte[] ref = name.getBytes(StandardCharsets.US_ASCII);
+        for (String saleId : saleIds) {
+            Path refFile = refPath(saleId);
+            Files.createDirectories(refFile.getParent());
+            writeAtomically(refFile, channel -> channel.write(ByteBuffer.wrap(ref)));
+        }
+        return describe(hash, blob);
+    }
+
+    /**
+     * The invoice stored for a sale, or empty if there never was one or it
+     * has been evicted.
+     */
+    public Optional<StoredInvoice> find(String saleId) throws IOException {
+        Path refFile = refPath(saleId);
+        String name;
+        try {
+            name = Files.readString(refFile, StandardCharsets.US_ASCII).trim();
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        Path blob = objects.resolve(name).normalize();
+        if (!blob.startsWith(objects) || Files.notExists(blob)) {
+            Files.deleteIfExists(refFile);
+            return Optional.empty();
+        }
+        String fileName = blob.getFileName().toString();
+        return Optional.of(describe(fileName.substring(0, fileName.indexOf('.')), blob));
+    }
+
+    @Scheduled(fixedDelayString = "${billing.invoice.store.eviction-interval-ms:3600000}",
+            initialDelayString = "${billing.invoice.store.eviction-interval-ms:3600000}")
+    public void scheduledEviction() {
+        try {
+            evict();
+        } catch (IOException e) {
+            log.error("Invoice store eviction failed", e);
+        }
+    }
+
+    /**
+     * Applies the age and size limits; returns how many invoices were removed.
+     */
+    public int evict() throws IOException {
+        evictionLock.lock();
+        try {
+            Instant now = Instant.now();
+            Instant cutoff = now.minus(Duration.ofDays(maxAgeDays));
+            List<Blob> blobs = new ArrayList<>();
+            long total = 0;
+            try (Stream<Path> files = Files.walk(objects, 2)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (!attributes.isRegularFile()) {
+                        continue;
+                    }
+                    Instant modified = attributes.lastModifiedTime().toInstant();
+                    if (file.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                        // Left behind by a crash mid-write
+                        if (modified.isBefore(now.minus(TEMP_FILE_GRACE))) {
+                            Files.deleteIfExists(file);
+                        }
+                        continue;
+                    }
+                    blobs.add(new Blob(file, attributes.size(), modified));
+                    total += attributes.size();
+                }
+            }
+
+            blobs.sort(Comparator.comparing(Blob::modified));
+            int removed = 0;
+            long freed = 0;
+            for (Blob blob : blobs) {
+                if (!blob.modified().isBefore(cutoff) && total <= maxBytes) {
+                    break;
+                }
+                if (Files.deleteIfExists(blob.file())) {
+                    removed++;
+                    freed += blob.size();
+                }
+                total -= blob.size();
+            }
+            if (removed > 0) {
+                int orphans = removeDanglingRefs();
+                log.info("Evicted {} invoices ({} bytes) and {} refs, {} bytes remain",
+                        removed, freed, orphans, total);
+            }
+            return removed;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private int removeDanglingRefs() throws IOException {
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(refs, 2)) {
+            for (Path refFile : (Iterable<Path>) files::iterator) {
+                if (!Files.isRegularFile(refFile) || refFile.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                    continue;
+                }
+                String name;
+                try {
+                    name = Files.readString(refFile, StandardCharsets.US_ASCII).trim();
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (Files.notExists(objects.resolve(name)) && Files.deleteIfExists(refFile)) {
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    // Sharded on the id's tail: ObjectIds share their leading timestamp bytes for long stretches
+    private Path refPath(String saleId) {
+        if (saleId == null || !SALE_ID.matcher(saleId).matches()) {
+            throw new IllegalArgumentException("Invalid sale id: " + saleId);
+        }
+        return refs.resolve(saleId.substring(saleId.length() - 2)).resolve(saleId);
+    }
+
+    private StoredInvoice describe(String hash, Path blob) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(blob, BasicFileAttributes.class);
+        return new StoredInvoice(hash, blob, attributes.size(), blob.getFileName().toString().endsWith(GZIP),
+                attributes.lastModifiedTime());
+    }
+
+    private static void writeAtomically(Path target, ChannelWriter writer) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), TEMP_PREFIX, null);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.write(channel);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private record Blob(Path file, long size, Instant modified) {
+    }
+}
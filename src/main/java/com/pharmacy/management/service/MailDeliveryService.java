@@ -0,0 +1,368 @@
+package com.pharmacy.management.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends mail over a few long-lived SMTP connections instead of one connect,
+ * STARTTLS and AUTH per message. Each worker owns one authenticated transport
+ * and drains the queue up to {@code mail.delivery.batch-size} messages at a
+ * time over it; connections are recycled after
+ * {@code max-messages-per-connection} and closed when idle.
+ * <p>
+ * A 4xx reply means the relay is throttling: the connection is dropped and
+ * every worker holds off for a doubling, jittered backoff before the same
+ * message is tried again. 5xx replies fail just that message.
+ */
+@Service
+public class MailDeliveryService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDeliveryService.class);
+    // "Got bad greeting from SMTP host: ..., response: 421 ..." carries no structured code
+    private static final Pattern RESPONSE_CODE = Pattern.compile("response: \\[?(\\d{3})");
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Value("${mail.delivery.connections:2}")
+    private int connections;
+
+    @Value("${mail.delivery.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.delivery.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${mail.delivery.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${mail.delivery.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${mail.delivery.throttle-backoff-ms:1000}")
+    private long throttleBackoffMs;
+
+    @Value("${mail.delivery.max-throttle-backoff-ms:60000}")
+    private long maxThrottleBackoffMs;
+
+    @Value("${mail.delivery.max-throttle-retries:5}")
+    private int maxThrottleRetries;
+
+    private BlockingQueue<Outgoing> queue;
+    private List<Thread> workers;
+    private volatile boolean running;
+
+    private final AtomicLong currentBackoffMs = new AtomicLong();
+    private volatile long throttledUntilNanos;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        // Platform threads on purpose: SMTPTransport.sendMessage is synchronized around
+        // socket I/O and would pin a virtual thread's carrier for the whole send
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("mail-");
+        workers = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            Thread worker = threads.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            worker.interrupt();
+        }
+        List<Outgoing> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        if (!dropped.isEmpty()) {
+            log.warn("Mail queue not drained on shutdown, {} messages dropped", dropped.size());
+            dropped.forEach(out -> out.result.completeExceptionally(
+                    new RejectedExecutionException("Mail delivery stopped")));
+        }
+    }
+
+    /**
+     * Queues a message and returns a future that completes once the relay has
+     * accepted it, or exceptionally if it was rejected or the queue is full.
+     */
+    public CompletableFuture<Void> send(MimeMessage message) {
+        Outgoing out = new Outgoing(message);
+        if (!running || !queue.offer(out)) {
+            failedCount.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Mail queue is full"));
+        }
+        return out.result;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public long getCurrentBackoffMs() {
+        return currentBackoffMs.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.delivery.sent", this, MailDeliveryService::getSentCount)
+                .description("Messages accepted by the relay")
+                .register(registry);
+        FunctionCounter.builder("mail.delivery.failed", this, MailDeliveryService::getFailedCount)
+                .description("Messages rejected, given up on or refused by a full queue")
+                .register(registry);
+        FunctionCounter.builder("mail.delivery.throttled", this, MailDeliveryService::getThrottledCount)
+                .description("4xx replies that triggered a backoff")
+                .register(registry);
+        FunctionCounter.builder("mail.delivery.batches", this, MailDeliveryService::getBatchCount)
+                .register(registry);
+        FunctionCounter.builder("mail.delivery.connections.opened", this, MailDeliveryService::getConnectionsOpened)
+                .description("SMTP connections opened, each costing a handshake and AUTH")
+                .register(registry);
+        Gauge.builder("mail.delivery.queue.depth", this, MailDeliveryService::getQueueDepth)
+                .register(registry);
+        Gauge.builder("mail.delivery.backoff", this, MailDeliveryService::getCurrentBackoffMs)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private void work() {
+        Connection connection = new Connection();
+        List<Outgoing> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Outgoing first = queue.poll(Math.min(idleTimeoutMs, 1000), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    connection.closeIfIdle();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batchCount.incrementAndGet();
+                deliver(connection, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(out -> out.result.completeExceptionally(
+                    new RejectedExecutionException("Mail delivery stopped")));
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void deliver(Connection connection, List<Outgoing> batch) throws InterruptedException {
+        int next = 0;
+        while (next < batch.size()) {
+            awaitThrottle();
+            Outgoing out = batch.get(next);
+            try {
+                connection.send(out.message);
+                currentBackoffMs.set(0);
+                sentCount.incrementAndGet();
+                out.result.complete(null);
+                next++;
+            } catch (MessagingException e) {
+                int code = replyCode(e);
+                if (code >= 400 && code < 500) {
+                    throttledCount.incrementAndGet();
+                    connection.close();
+                    if (++out.throttleRetries > maxThrottleRetries) {
+                        fail(out, e);
+                        next++;
+                    }
+                    throttle(code);
+                } else if (code >= 500) {
+                    // Refused outright; the session itself is still fine
+                    fail(out, e);
+                    next++;
+                } else {
+                    // Broken or dropped connection: one more go on a fresh one
+                    connection.close();
+                    if (out.reconnected) {
+                        fail(out, e);
+                        next++;
+                    } else {
+                        out.reconnected = true;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // A malformed message or a transport in a bad state; fail this one and keep the worker alive
+                log.warn("Could not send mail, dropping the connection", e);
+                connection.close();
+                fail(out, e);
+                next++;
+            }
+        }
+    }
+
+    private void fail(Outgoing out, Exception e) {
+        failedCount.incrementAndGet();
+        out.result.completeExceptionally(e);
+    }
+
+    private void throttle(int code) {
+        long backoff = currentBackoffMs.updateAndGet(
+                current -> current == 0 ? throttleBackoffMs : Math.min(current * 2, maxThrottleBackoffMs));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        throttledUntilNanos = Math.max(throttledUntilNanos, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
+        log.info("Mail relay throttling ({}), backing off {} ms", code, delay);
+    }
+
+    private void awaitThrottle() throws InterruptedException {
+        long wait = throttledUntilNanos - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    // SMTP reply code anywhere in the exception chain, or -1 if the failure never got a reply
+    static int replyCode(Exception e) {
+        for (Throwable t = e; t != null; ) {
+            if (t instanceof SMTPSendFailedException failed) {
+                return failed.getReturnCode();
+            }
+            if (t instanceof SMTPAddressFailedException failed) {
+                return failed.getReturnCode();
+            }
+            if (t.getMessage() != null) {
+                Matcher matcher = RESPONSE_CODE.matcher(t.getMessage());
+                if (matcher.find()) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
+            Throwable next = t instanceof MessagingException messaging ? messaging.getNextException() : null;
+            t = next != null ? next : t.getCause();
+        }
+        return -1;
+    }
+
+    private static final class Outgoing {
+        private final MimeMessage message;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private int throttleRetries;
+        private boolean reconnected;
+
+        private Outgoing(MimeMessage message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * One worker's SMTP session, opened on first use and kept across batches.
+     */
+    private final class Connection {
+        private Transport transport;
+        private int sentOnConnection;
+        private long lastUsedNanos;
+
+        void send(MimeMessage message) throws MessagingException {
+            if (transport != null && sentOnConnection >= maxMessagesPerConnection) {
+                close();
+            }
+            if (transport == null) {
+                open();
+            }
+            // What JavaMailSenderImpl.send does before handing a message to the transport
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                message.setHeader("Message-ID", messageId);
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+            sentOnConnection++;
+            lastUsedNanos = System.nanoTime();
+        }
+
+        void closeIfIdle() {
+            if (transport != null
+                    && System.nanoTime() - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs)) {
+                close();
+            }
+        }
+
+        void close() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    log.debug("Error closing SMTP connection", e);
+                }
+                transport = null;
+            }
+        }
+
+        private void open() throws MessagingException {
+            Transport opened = mailSender.getSession().getTransport(mailSender.getProtocol());
+            opened.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+                    mailSender.getPassword());
+            connectionsOpened.incrementAndGet();
+            transport = opened;
+            sentOnConnection = 0;
+            lastUsedNanos = System.nanoTime();
+        }
+    }
+}
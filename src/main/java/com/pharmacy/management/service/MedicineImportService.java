@@ -0,0 +1,338 @@
+package com.pharmacy.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.pharmacy.management.config.CacheConfig;
+import com.pharmacy.management.dto.ImportReport;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk-loads medicines from a CSV or NDJSON upload. The body is read one row
+ * at a time, each row is checked against the {@link Medicine} constraints, and
+ * valid rows are upserted on (adminId, name) in unordered bulk writes of
+ * {@code medicine.import.batch-size}, so memory stays flat and a 50k-row file
+ * costs a few dozen round trips. Bad rows are reported, not fatal.
+ * <p>
+ * Concurrent imports of the same name cannot create duplicates: the upsert
+ * key is covered by the unique {@code admin_name} index, and Mongo retries
+ * an upsert that loses that race as an update. Without that index an import
+ * is refused rather than run without the guarantee.
+ */
+@Service
+public class MedicineImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicineImportService.class);
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MedicineSearchIndex medicineSearchIndex;
+
+    @Autowired
+    private ExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${medicine.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${medicine.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ImportReport importMedicines(String adminId, Format format, InputStream in) throws IOException {
+        if (!medicineRepository.hasUniqueNameIndex()) {
+            throw new IllegalStateException("Medicine import is unavailable: the unique "
+                    + MedicineRepository.UNIQUE_NAME_INDEX + " index is missing because some medicines share a name;"
+                    + " merge them and restart the server");
+        }
+        ImportReport report = new ImportReport();
+        LocalDate today = LocalDate.now();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader, objectMapper);
+        Map<String, Row> batch = new LinkedHashMap<>();
+        boolean completed = false;
+        try {
+            Row row;
+            while ((row = rows.next()) != null) {
+                report.received();
+                if (row.error() != null) {
+                    report.reject(row.line(), null, row.error(), maxErrors);
+                    continue;
+                }
+                String violations = validate(row.medicine());
+                if (violations != null) {
+                    report.reject(row.line(), row.medicine().getName(), violations, maxErrors);
+                    continue;
+                }
+                // A repeated name must land after the earlier row, not race it in the same unordered batch
+                if (batch.containsKey(row.medicine().getName()) || batch.size() >= batchSize) {
+                    flush(adminId, batch, today, report);
+                }
+                batch.put(row.medicine().getName(), row);
+            }
+            flush(adminId, batch, today, report);
+            completed = true;
+        } finally {
+            // Not @CacheEvict: that is skipped when the method throws, and a failure
+            // part-way through may already have written earlier batches
+            if (!completed || report.getInserted() + report.getUpdated() > 0) {
+                medicineSearchIndex.invalidate(adminId);
+                Cache inventory = cacheManager.getCache(CacheConfig.INVENTORY);
+                if (inventory != null) {
+                    inventory.evict(adminId);
+                }
+            }
+        }
+        log.info("Imported medicines for {}: {} inserted, {} updated, {} rejected",
+                adminId, report.getInserted(), report.getUpdated(), report.getFailed());
+        return report;
+    }
+
+    private void flush(String adminId, Map<String, Row> batch, LocalDate today, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Row> pending = new ArrayList<>(batch.values());
+        batch.clear();
+        List<Medicine> medicines = pending.stream().map(Row::medicine).toList();
+        try {
+            BulkWriteResult result = medicineRepository.upsertByName(adminId, medicines, today);
+            report.written(result.getUpserts().size(), result.getMatchedCount());
+        } catch (BulkOperationException e) {
+            // Unordered: everything but the failed operations was applied
+            report.written(e.getResult().getUpserts().size(), e.getResult().getMatchedCount());
+            e.getErrors().forEach(error -> {
+                Row failed = pending.get(error.getIndex());
+                report.reject(failed.line(), failed.medicine().getName(), error.getMessage(), maxErrors);
+            });
+        }
+
+        for (Medicine saved : medicineRepository.findByAdminIdAndNameIn(adminId,
+                medicines.stream().map(Medicine::getName).toList())) {
+            expiryScheduler.track(saved);
+        }
+    }
+
+    private String validate(Medicine medicine) {
+        Set<ConstraintViolation<Medicine>> violations = validator.validate(medicine);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    /**
+     * One parsed input row: either a medicine or the reason it could not be
+     * read, plus the line it started on.
+     */
+    private record Row(long line, Medicine medicine, String error) {
+    }
+
+    private interface RowReader {
+        Row next() throws IOException;
+    }
+
+    private static final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader in;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        NdjsonRowReader(BufferedReader in, ObjectMapper objectMapper) {
+            this.in = in;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                return new Row(line, objectMapper.readValue(text, Medicine.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 style reader: the first record names the columns, fields may be
+     * quoted, and quoted fields may contain commas, doubled quotes and line
+     * breaks, as written by the sales CSV export.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final BufferedReader in;
+        private Map<String, Integer> columns;
+        private long line;
+        private long recordLine;
+
+        CsvRowReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (columns == null) {
+                readHeader();
+            }
+            List<String> fields;
+            try {
+                fields = readRecord();
+            } catch (IllegalArgumentException e) {
+                return new Row(recordLine, null, e.getMessage());
+            }
+            if (fields == null) {
+                return null;
+            }
+            try {
+                Medicine medicine = new Medicine(
+                        field(fields, "name"),
+                        field(fields, "description"),
+                        parse(fields, "price", Double::valueOf),
+                        parse(fields, "quantity", Integer::valueOf),
+                        parse(fields, "expirydate", LocalDate::parse));
+                return new Row(recordLine, medicine, null);
+            } catch (IllegalArgumentException e) {
+                return new Row(recordLine, null, e.getMessage());
+            }
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV upload is empty");
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                columns.putIfAbsent(name, i);
+            }
+            for (String required : List.of("name", "price", "quantity")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header is missing the " + required + " column");
+                }
+            }
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private <T> T parse(List<String> fields, String column, java.util.function.Function<String, T> parser) {
+            String value = field(fields, column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        // Returns null at end of input; skips blank lines between records
+        private List<String> readRecord() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    text = in.readLine();
+                    if (text == null) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+    }
+}
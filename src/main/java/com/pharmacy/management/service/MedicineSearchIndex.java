@@ -0,0 +1,354 @@
+package com.pharmacy.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Per-tenant in-memory index over medicine names and descriptions for
+ * typeahead search. Each tenant's index is built from Mongo on its first
+ * search and then kept current by the medicine write paths. At most
+ * {@code search.index.max-tenants} indexes are kept, and one left unsearched
+ * for {@code search.index.idle-ttl-ms} is dropped until it is searched again.
+ * <p>
+ * Name and description tokens sit in sorted maps so a prefix is one
+ * {@code subMap} range scan; name tokens are also indexed by trigram so a
+ * misspelt query still finds close names. Every query token has to match
+ * somewhere and the best {@code limit} medicines are kept in a small heap.
+ */
+@Service
+public class MedicineSearchIndex {
+
+    static final double EXACT_NAME = 100;
+    static final double NAME_PREFIX = 50;
+    static final double NAME_TOKEN = 20;
+    static final double NAME_TOKEN_PREFIX = 12;
+    static final double NAME_FUZZY = 8;
+    static final double DESCRIPTION_TOKEN_PREFIX = 3;
+
+    private static final double MIN_SIMILARITY = 0.4;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Striped by tenant and never evicted, so a build always sees a write that raced it
+    private static final int GENERATION_STRIPES = 1024;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Value("${search.index.max-tenants:500}")
+    private long maxTenants;
+
+    @Value("${search.index.idle-ttl-ms:3600000}")
+    private long idleTtlMs;
+
+    // Bounded like the inventory cache; an evicted tenant is rebuilt on its next search
+    private Cache<String, TenantIndex> tenants;
+    // Bumped on every write so a build that raced with one is not kept
+    private final AtomicLong[] generations = Stream.generate(AtomicLong::new)
+            .limit(GENERATION_STRIPES)
+            .toArray(AtomicLong[]::new);
+
+    @PostConstruct
+    public void init() {
+        tenants = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(Duration.ofMillis(idleTtlMs))
+                .build();
+    }
+
+    /**
+     * Ids of the best matching medicines for {@code query}, best first.
+     */
+    public List<String> search(String adminId, String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return indexFor(adminId).search(normalize(query), terms, limit);
+    }
+
+    /**
+     * Adds or re-indexes a medicine after it was saved. A tenant that has not
+     * been searched yet is left alone; it is built fresh on first use.
+     */
+    public void put(Medicine medicine) {
+        generation(medicine.getAdminId()).incrementAndGet();
+        TenantIndex index = tenants.getIfPresent(medicine.getAdminId());
+        if (index != null) {
+            index.put(medicine.getId(), medicine.getName(), medicine.getDescription());
+        }
+    }
+
+    public void remove(String adminId, String medicineId) {
+        generation(adminId).incrementAndGet();
+        TenantIndex index = tenants.getIfPresent(adminId);
+        if (index != null) {
+            index.remove(medicineId);
+        }
+    }
+
+    /**
+     * Drops a tenant's index, for writes that do not know exactly which
+     * medicines they removed. The next search rebuilds it.
+     */
+    public void invalidate(String adminId) {
+        generation(adminId).incrementAndGet();
+        tenants.invalidate(adminId);
+    }
+
+    int getIndexedCount(String adminId) {
+        TenantIndex index = tenants.getIfPresent(adminId);
+        return index == null ? 0 : index.size();
+    }
+
+    private TenantIndex indexFor(String adminId) {
+        TenantIndex index = tenants.getIfPresent(adminId);
+        if (index != null) {
+            return index;
+        }
+        // Built outside Cache.get so the Mongo read never runs under a map bin lock
+        AtomicLong generation = generation(adminId);
+        long before = generation.get();
+        TenantIndex built = new TenantIndex();
+        for (Medicine medicine : medicineRepository.findByAdminId(adminId)) {
+            built.put(medicine.getId(), medicine.getName(), medicine.getDescription());
+        }
+        if (generation.get() != before) {
+            return built;
+        }
+        TenantIndex existing = tenants.asMap().putIfAbsent(adminId, built);
+        if (generation.get() != before) {
+            tenants.asMap().remove(adminId, built);
+        }
+        return existing != null ? existing : built;
+    }
+
+    private AtomicLong generation(String adminId) {
+        return generations[Math.floorMod(adminId.hashCode(), GENERATION_STRIPES)];
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    static Set<String> trigrams(String token) {
+        String padded = "$" + token + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Indexed(String id, String normalizedName, List<String> nameTokens,
+            List<String> descriptionTokens) {
+    }
+
+    private record Ranked(Indexed entry, double score) {
+    }
+
+    private static final class TenantIndex {
+
+        private static final Comparator<Ranked> WORST_FIRST = Comparator.comparingDouble(Ranked::score)
+                .thenComparing(r -> r.entry().normalizedName().length(), Comparator.reverseOrder())
+                .thenComparing(r -> r.entry().normalizedName(), Comparator.reverseOrder());
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Indexed> entries = new HashMap<>();
+        private final TreeMap<String, Set<String>> nameTokens = new TreeMap<>();
+        private final TreeMap<String, Set<String>> descriptionTokens = new TreeMap<>();
+        private final Map<String, Set<String>> tokensByTrigram = new HashMap<>();
+
+        void put(String id, String name, String description) {
+            Indexed entry = new Indexed(id, normalize(name), tokenize(name), tokenize(description));
+            lock.writeLock().lock();
+            try {
+                unlink(entries.put(id, entry));
+                for (String token : entry.nameTokens()) {
+                    Set<String> ids = nameTokens.get(token);
+                    if (ids == null) {
+                        ids = new HashSet<>();
+                        nameTokens.put(token, ids);
+                        for (String gram : trigrams(token)) {
+                            tokensByTrigram.computeIfAbsent(gram, key -> new HashSet<>()).add(token);
+                        }
+                    }
+                    ids.add(id);
+                }
+                for (String token : entry.descriptionTokens()) {
+                    descriptionTokens.computeIfAbsent(token, key -> new HashSet<>()).add(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String id) {
+            lock.writeLock().lock();
+            try {
+                unlink(entries.remove(id));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<String> search(String query, List<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                Map<String, Double> scores = null;
+                for (String term : terms) {
+                    Map<String, Double> termScores = scoreTerm(term);
+                    if (scores == null) {
+                        scores = termScores;
+                    } else {
+                        scores.keySet().retainAll(termScores.keySet());
+                        scores.replaceAll((id, score) -> score + termScores.get(id));
+                    }
+                    if (scores.isEmpty()) {
+                        return List.of();
+                    }
+                }
+
+                PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+                for (Map.Entry<String, Double> scored : scores.entrySet()) {
+                    Indexed entry = entries.get(scored.getKey());
+                    double score = scored.getValue();
+                    if (entry.normalizedName().equals(query)) {
+                        score += EXACT_NAME;
+                    } else if (entry.normalizedName().startsWith(query)) {
+                        score += NAME_PREFIX;
+                    }
+                    best.add(new Ranked(entry, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+
+                List<String> ids = new ArrayList<>(best.size());
+                while (!best.isEmpty()) {
+                    ids.add(best.poll().entry().id());
+                }
+                Collections.reverse(ids);
+                return ids;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Best name score per medicine for one query token, plus a bonus if its description matches too
+        private Map<String, Double> scoreTerm(String term) {
+            Map<String, Double> scores = new HashMap<>();
+            for (Map.Entry<String, Set<String>> hit : prefixRange(nameTokens, term).entrySet()) {
+                double score = hit.getKey().equals(term) ? NAME_TOKEN : NAME_TOKEN_PREFIX;
+                for (String id : hit.getValue()) {
+                    scores.merge(id, score, Math::max);
+                }
+            }
+            if (term.length() >= 3) {
+                fuzzyNameMatches(term, scores);
+            }
+            Set<String> inDescription = new HashSet<>();
+            for (Set<String> ids : prefixRange(descriptionTokens, term).values()) {
+                inDescription.addAll(ids);
+            }
+            for (String id : inDescription) {
+                scores.merge(id, DESCRIPTION_TOKEN_PREFIX, Double::sum);
+            }
+            return scores;
+        }
+
+        // Jaccard similarity of padded trigrams between the term and each indexed name token
+        private void fuzzyNameMatches(String term, Map<String, Double> scores) {
+            Set<String> grams = trigrams(term);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                for (String token : tokensByTrigram.getOrDefault(gram, Set.of())) {
+                    shared.merge(token, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                int common = candidate.getValue();
+                int tokenGrams = candidate.getKey().length();
+                double similarity = (double) common / (grams.size() + tokenGrams - common);
+                if (similarity < MIN_SIMILARITY || candidate.getKey().startsWith(term)) {
+                    continue;
+                }
+                double score = NAME_FUZZY * similarity;
+                for (String id : nameTokens.get(candidate.getKey())) {
+                    scores.merge(id, score, Math::max);
+                }
+            }
+        }
+
+        private static NavigableMap<String, Set<String>> prefixRange(TreeMap<String, Set<String>> tokens, String prefix) {
+            return tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        private void unlink(Indexed entry) {
+            if (entry == null) {
+                return;
+            }
+            for (String token : entry.nameTokens()) {
+                Set<String> ids = nameTokens.get(token);
+                if (ids != null && ids.remove(entry.id()) && ids.isEmpty()) {
+                    nameTokens.remove(token);
+                    for (String gram : trigrams(token)) {
+                        Set<String> grams = tokensByTrigram.get(gram);
+                        if (grams != null && grams.remove(token) && grams.isEmpty()) {
+                            tokensByTrigram.remove(gram);
+                        }
+                    }
+                }
+            }
+            for (String token : entry.descriptionTokens()) {
+                Set<String> ids = descriptionTokens.get(token);
+                if (ids != null && ids.remove(entry.id()) && ids.isEmpty()) {
+                    descriptionTokens.remove(token);
+                }
+            }
+        }
+    }
+}
@@ -1,39 +1,88 @@
 package com.pharmacy.management.service;
 
+import com.pharmacy.management.config.CacheConfig;
+import com.mongodb.bulk.BulkWriteResult;
+import com.pharmacy.management.dto.BulkPatchResult;
+import com.pharmacy.management.dto.CartBillingRequest;
+import com.pharmacy.management.dto.CartItem;
+import com.pharmacy.management.dto.ColumnarPage;
+import com.pharmacy.management.dto.CursorPage;
+import com.pharmacy.management.dto.MedicineFilter;
+import com.pharmacy.management.dto.MedicineListing;
+import com.pharmacy.management.dto.MedicinePatch;
+import com.pharmacy.management.dto.MedicineRow;
+import com.pharmacy.management.exception.ConcurrentUpdateException;
 import com.pharmacy.management.exception.InsufficientStockException;
 import com.pharmacy.management.exception.MedicineNotFoundException;
 import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
 import com.pharmacy.management.repository.MedicineRepository;
+import com.pharmacy.management.repository.MedicineRepositoryCustom.StatusCounts;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class MedicineService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("name", "price", "quantity", "expiryDate");
+
     private boolean isExpired(Medicine medicine) {
         if (medicine.isExpired())
             return true;
-        if (medicine.getExpiryDate() == null || medicine.getExpiryDate().isEmpty())
-            return false;
-        try {
-            java.time.LocalDate expiry = java.time.LocalDate.parse(medicine.getExpiryDate());
-            return expiry.isBefore(java.time.LocalDate.now());
-        } catch (Exception e) {
-            return false;
+        return medicine.getExpiryDate() != null && medicine.getExpiryDate().isBefore(java.time.LocalDate.now());
+    }
+
+    /**
+     * Explains why the atomic decrement matched nothing, using a fresh read of
+     * the medicine. Only runs on the rejection path.
+     */
+    private RuntimeException rejectedSale(Medicine medicine, int quantity, String expiredMessage) {
+        if (medicine.getQuantity() < quantity) {
+            return new InsufficientStockException("Insufficient stock. Available: " + medicine.getQuantity());
         }
+        if (isExpired(medicine)) {
+            return new IllegalStateException(expiredMessage);
+        }
+        return new InsufficientStockException("Stock changed concurrently, please retry");
     }
 
     @Autowired
     private MedicineRepository medicineRepository;
 
     @Autowired
-    private EmailService emailService;
+    private InvoiceDispatcher invoiceDispatcher;
 
     @Autowired
     private com.pharmacy.management.repository.SaleRepository saleRepository;
 
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    @Autowired
+    private ExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private MedicineSearchIndex medicineSearchIndex;
+
+    // Not sync: Caffeine would run the Mongo read inside a ConcurrentHashMap bin lock,
+    // pinning the carrier when requests run on virtual threads
+    @Cacheable(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
     public List<Medicine> getAllMedicines(String adminId) {
         return medicineRepository.findByAdminId(adminId);
     }
@@ -42,95 +91,380 @@ public class MedicineService {
         return medicineRepository.findByAdminId(adminId, org.springframework.data.domain.PageRequest.of(page, size));
     }
 
+    /**
+     * Keyset page of medicines ordered by name. Unlike the offset variant this
+     * never skips rows or runs a count unless {@code includeTotal} is set.
+     */
+    public CursorPage<Medicine> getMedicinePage(String adminId, String cursor, int size, boolean includeTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String afterId = null;
+        String afterName = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = CursorPage.decodeCursor(cursor);
+            afterId = key[0];
+            afterName = key[1];
+        }
+
+        List<Medicine> rows = medicineRepository.findPageAfter(adminId, afterName, afterId, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Medicine last = rows.get(limit - 1);
+            nextCursor = CursorPage.encodeCursor(last.getId(), last.getName());
+        }
+        Long total = includeTotal ? medicineRepository.countByAdminId(adminId) : null;
+        return new CursorPage<>(rows, nextCursor, total);
+    }
+
+    /**
+     * Same keyset page as {@link #getMedicinePage} reduced to the table's
+     * columns and laid out column by column.
+     */
+    public ColumnarPage getMedicineRows(String adminId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String afterId = null;
+        String afterName = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = CursorPage.decodeCursor(cursor);
+            afterId = key[0];
+            afterName = key[1];
+        }
+
+        List<MedicineRow> rows = medicineRepository.findRowsAfter(adminId, afterName, afterId, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            MedicineRow last = rows.get(limit - 1);
+            nextCursor = CursorPage.encodeCursor(last.id(), last.name());
+        }
+
+        int n = rows.size();
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        double[] prices = new double[n];
+        int[] quantities = new int[n];
+        java.time.LocalDate[] expiryDates = new java.time.LocalDate[n];
+        boolean[] expired = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            MedicineRow row = rows.get(i);
+            ids[i] = row.id();
+            names[i] = row.name();
+            prices[i] = row.price() == null ? 0 : row.price();
+            quantities[i] = row.quantity() == null ? 0 : row.quantity();
+            expiryDates[i] = row.expiryDate();
+            expired[i] = row.expired();
+        }
+        return new ColumnarPage(n, nextCursor)
+                .column("id", ids)
+                .column("name", names)
+                .column("price", prices)
+                .column("quantity", quantities)
+                .column("expiryDate", expiryDates)
+                .column("expired", expired);
+    }
+
+    /**
+     * Filtered, sorted page of medicines plus per-status counts, computed in
+     * Mongo so the dashboard only downloads the rows it shows.
+     */
+    public MedicineListing getFilteredMedicines(String adminId, MedicineFilter filter, String sortBy,
+            String direction, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot sort by " + sortBy);
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // _id breaks ties so pages stay stable when many rows share a price or quantity
+        Sort sort = Sort.by(Sort.Direction.fromString(direction), sortBy).and(Sort.by("_id"));
+        java.time.LocalDate today = java.time.LocalDate.now();
+
+        List<Medicine> rows = medicineRepository.findFiltered(adminId, filter, today,
+                PageRequest.of(page, limit, sort));
+        StatusCounts counts = medicineRepository.countByStatus(adminId, filter, today);
+        long total = filter.getStatus() == null ? counts.total() : counts.byStatus().get(filter.getStatus());
+        return new MedicineListing(rows, page, limit, total, counts.total(), counts.byStatus());
+    }
+
+    /**
+     * Typeahead search over names and descriptions. Ranking happens in the
+     * in-memory index; only the top hits are then read back by id so stock
+     * and expiry are always current.
+     */
+    public List<Medicine> searchMedicines(String adminId, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        List<String> ids = medicineSearchIndex.search(adminId, query,
+                Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Medicine> byId = new java.util.HashMap<>();
+        for (Medicine medicine : medicineRepository.findAllById(ids)) {
+            if (adminId.equals(medicine.getAdminId())) {
+                byId.put(medicine.getId(), medicine);
+            }
+        }
+        return ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+    }
+
+    /**
+     * Medicines expiring from today up to {@code days} days ahead, soonest first.
+     */
+    public List<Medicine> getExpiringWithin(String adminId, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days must not be negative");
+        }
+        java.time.LocalDate today = java.time.LocalDate.now();
+        return medicineRepository.findExpiringBetween(adminId, today, today.plusDays(days));
+    }
+
     public Medicine getMedicineById(String id, String adminId) {
         return medicineRepository.findByIdAndAdminId(id, adminId)
                 .orElseThrow(() -> new MedicineNotFoundException("Medicine not found with id: " + id));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
     public Medicine addMedicine(Medicine medicine, String adminId) {
         medicine.setAdminId(adminId);
-        return medicineRepository.save(medicine);
+        // Always an insert: an id or version in the body must not turn this into a write to another document
+        medicine.setId(null);
+        medicine.setVersion(null);
+        Medicine saved = medicineRepository.save(medicine);
+        expiryScheduler.track(saved);
+        medicineSearchIndex.put(saved);
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
     public Medicine sellMedicine(String id, int quantity, String adminId) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than zero");
         }
 
-        Medicine medicine = medicineRepository.findByIdAndAdminId(id, adminId)
-                .orElseThrow(() -> new MedicineNotFoundException("Medicine not found with id: " + id));
-
-        if (medicine.getQuantity() < quantity) {
-            throw new InsufficientStockException("Insufficient stock. Available: " + medicine.getQuantity());
-        }
-
-        if (isExpired(medicine)) {
-            throw new IllegalStateException("Cannot sell expired medicine");
-        }
-
-        medicine.setQuantity(medicine.getQuantity() - quantity);
-        return medicineRepository.save(medicine);
+        return medicineRepository.decrementStock(id, adminId, quantity)
+                .orElseThrow(() -> rejectedSale(getMedicineById(id, adminId), quantity,
+                        "Cannot sell expired medicine"));
     }
 
+    /**
+     * Replaces the editable fields with a versioned save. A PUT carries the
+     * client's absolute stock figure, so it is never retried on a re-read
+     * copy: that would overwrite a sale that landed in between. If the caller
+     * sent a version that is no longer current, or anything else changed the
+     * medicine before the save, it is told to reload instead.
+     */
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
     public Medicine updateMedicine(String id, Medicine medicineDetails, String adminId) {
         Medicine medicine = medicineRepository.findByIdAndAdminId(id, adminId)
                 .orElseThrow(() -> new MedicineNotFoundException("Medicine not found with id: " + id));
+        if (medicineDetails.getVersion() != null && !medicineDetails.getVersion().equals(medicine.getVersion())) {
+            throw staleMedicine(id);
+        }
 
         medicine.setName(medicineDetails.getName());
         medicine.setDescription(medicineDetails.getDescription());
         medicine.setPrice(medicineDetails.getPrice());
         medicine.setQuantity(medicineDetails.getQuantity());
+        Medicine saved;
+        try {
+            saved = medicineRepository.save(medicine);
+        } catch (OptimisticLockingFailureException e) {
+            throw staleMedicine(id);
+        }
+        expiryScheduler.track(saved);
+        medicineSearchIndex.put(saved);
+        return saved;
+    }
+
+    private ConcurrentUpdateException staleMedicine(String id) {
+        return new ConcurrentUpdateException("Medicine " + id + " was changed by another request, "
+                + "please reload and try again");
+    }
+
+    /**
+     * Writes only the fields present on {@code patch} in a single update, so
+     * stock moved by a concurrent sale is kept unless the patch sets it.
+     */
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
+    public Medicine patchMedicine(String id, MedicinePatch patch, String adminId) {
+        checkPatch(patch);
+        Medicine updated = medicineRepository.patch(id, adminId, patch, java.time.LocalDate.now())
+                .orElseThrow(() -> new InsufficientStockException("Insufficient stock. Available: "
+                        + getMedicineById(id, adminId).getQuantity()));
+        expiryScheduler.track(updated);
+        medicineSearchIndex.put(updated);
+        return updated;
+    }
+
+    /**
+     * Applies many patches, each naming its medicine by id, in one unordered
+     * bulk write.
+     */
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
+    public BulkPatchResult patchMedicines(List<MedicinePatch> patches, String adminId) {
+        Map<String, MedicinePatch> byId = new LinkedHashMap<>();
+        for (MedicinePatch patch : patches) {
+            if (patch.getId() == null || patch.getId().isBlank()) {
+                throw new IllegalArgumentException("Every update needs a medicine id");
+            }
+            checkPatch(patch);
+            // Two edits of one document in an unordered batch would apply in either order
+            if (byId.put(patch.getId(), patch) != null) {
+                throw new IllegalArgumentException("Duplicate update for medicine " + patch.getId());
+            }
+        }
+
+        BulkWriteResult result = medicineRepository.patchAll(adminId, byId.values(), java.time.LocalDate.now());
+
+        List<String> missing = List.of();
+        if (result.getMatchedCount() < byId.size()) {
+            java.util.Set<String> found = new java.util.HashSet<>();
+            for (Medicine medicine : medicineRepository.findAllById(byId.keySet())) {
+                if (adminId.equals(medicine.getAdminId())) {
+                    found.add(medicine.getId());
+                }
+            }
+            missing = byId.keySet().stream().filter(id -> !found.contains(id)).toList();
+        }
+        if (byId.values().stream().anyMatch(MedicinePatch::touchesSearchFields)) {
+            medicineSearchIndex.invalidate(adminId);
+        }
+        List<String> redated = byId.values().stream()
+                .filter(patch -> patch.getExpiryDate() != null)
+                .map(MedicinePatch::getId)
+                .toList();
+        if (!redated.isEmpty()) {
+            for (Medicine medicine : medicineRepository.findAllById(redated)) {
+                if (adminId.equals(medicine.getAdminId())) {
+                    expiryScheduler.track(medicine);
+                }
+            }
+        }
+        return new BulkPatchResult(byId.size(), result.getMatchedCount(), result.getModifiedCount(), missing);
+    }
 
-        return medicineRepository.save(medicine);
+    private static void checkPatch(MedicinePatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        if (patch.getQuantity() != null && patch.getQuantityDelta() != null) {
+            throw new IllegalArgumentException("Set either quantity or quantityDelta, not both");
+        }
     }
 
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
     public void deleteMedicine(String id, String adminId) {
         Medicine medicine = medicineRepository.findByIdAndAdminId(id, adminId)
                 .orElseThrow(() -> new MedicineNotFoundException("Medicine not found with id: " + id));
         medicineRepository.delete(medicine);
+        expiryScheduler.untrack(id);
+        medicineSearchIndex.remove(adminId, id);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
     public void processBilling(com.pharmacy.management.dto.BillingRequest request, String adminId) {
         if (request.getQuantity() <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than zero");
         }
 
-        Medicine medicine = medicineRepository.findByNameAndAdminId(request.getMedicineName(), adminId)
-                .orElseThrow(() -> new MedicineNotFoundException(
-                        "Medicine not found with name: " + request.getMedicineName()));
-
-        if (medicine.getQuantity() < request.getQuantity()) {
-            throw new InsufficientStockException("Insufficient stock. Available: " + medicine.getQuantity());
-        }
+        Medicine medicine = medicineRepository
+                .decrementStockByName(request.getMedicineName(), adminId, request.getQuantity())
+                .orElseThrow(() -> rejectedSale(medicineRepository
+                        .findByNameAndAdminId(request.getMedicineName(), adminId)
+                        .orElseThrow(() -> new MedicineNotFoundException(
+                                "Medicine not found with name: " + request.getMedicineName())),
+                        request.getQuantity(), "Cannot sell expired medicine: " + request.getMedicineName()));
 
-        if (isExpired(medicine)) {
-            throw new IllegalStateException("Cannot sell expired medicine: " + medicine.getName());
-        }
-
-        int newQuantity = medicine.getQuantity() - request.getQuantity();
         double totalPrice = medicine.getPrice() * request.getQuantity();
 
-        try {
-            emailService.sendBillEmail(request.getUserEmail(), medicine, request.getQuantity(), totalPrice);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send email: " + e.getMessage());
+        if (medicine.getQuantity() == 0 && medicineRepository.deleteIfOutOfStock(medicine.getId())) {
+            expiryScheduler.untrack(medicine.getId());
+            medicineSearchIndex.remove(adminId, medicine.getId());
         }
 
-        if (newQuantity == 0) {
-            medicineRepository.delete(medicine);
-        } else {
-            medicine.setQuantity(newQuantity);
-            medicineRepository.save(medicine);
-        }
-
-        // Record Sale
-        com.pharmacy.management.model.Sale sale = new com.pharmacy.management.model.Sale(
+        // Record Sale, then hand the invoice to the background pipeline
+        Sale unsaved = new Sale(
                 adminId,
                 medicine.getName(),
                 request.getQuantity(),
                 medicine.getPrice(),
                 totalPrice,
                 java.time.LocalDateTime.now());
-        saleRepository.save(sale);
+        unsaved.setDeliveryStatus(com.pharmacy.management.model.DeliveryStatus.PENDING);
+        Sale sale = salesSummaryService.saveAndRecord(adminId, () -> List.of(saleRepository.save(unsaved))).get(0);
+        invoiceDispatcher.dispatch(sale, request.getUserEmail(), medicine);
+    }
+
+    /**
+     * Bills a whole basket: one $in lookup to validate every line, one bulk
+     * write for the stock, one insert for the sales and one invoice email.
+     */
+    @CacheEvict(cacheNames = CacheConfig.INVENTORY, key = "#adminId")
+    public List<Sale> processCartBilling(CartBillingRequest request, String adminId) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (CartItem item : request.getItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than zero");
+            }
+            quantities.merge(item.getMedicineName(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<String, Medicine> byName = medicineRepository.findByAdminIdAndNameIn(adminId, quantities.keySet())
+                .stream()
+                .collect(Collectors.toMap(Medicine::getName, Function.identity(), (first, second) -> first));
+
+        Map<String, Integer> quantitiesById = new LinkedHashMap<>();
+        List<String> soldOut = new ArrayList<>();
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            Medicine medicine = byName.get(line.getKey());
+            if (medicine == null) {
+                throw new MedicineNotFoundException("Medicine not found with name: " + line.getKey());
+            }
+            if (medicine.getQuantity() < line.getValue()) {
+                throw new InsufficientStockException("Insufficient stock for " + medicine.getName()
+                        + ". Available: " + medicine.getQuantity());
+            }
+            if (isExpired(medicine)) {
+                throw new IllegalStateException("Cannot sell expired medicine: " + medicine.getName());
+            }
+            quantitiesById.put(medicine.getId(), line.getValue());
+            if (medicine.getQuantity().equals(line.getValue())) {
+                soldOut.add(medicine.getId());
+            }
+        }
+
+        String billId = UUID.randomUUID().toString();
+        if (!medicineRepository.decrementStockBulk(adminId, billId, quantitiesById)) {
+            throw new InsufficientStockException("Stock changed concurrently, please retry");
+        }
+        if (!soldOut.isEmpty() && medicineRepository.deleteIfOutOfStock(soldOut) > 0) {
+            // A line restocked in the meantime survives the delete and stays scheduled
+            Set<String> restocked = medicineRepository.findAllById(soldOut).stream()
+                    .map(Medicine::getId)
+                    .collect(Collectors.toSet());
+            soldOut.stream().filter(id -> !restocked.contains(id)).forEach(expiryScheduler::untrack);
+            medicineSearchIndex.invalidate(adminId);
+        }
+
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        List<Sale> sales = new ArrayList<>(quantities.size());
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            Medicine medicine = byName.get(line.getKey());
+            Sale sale = new Sale(adminId, medicine.getName(), line.getValue(), medicine.getPrice(),
+                    medicine.getPrice() * line.getValue(), now);
+            sale.setBillId(billId);
+            sale.setDeliveryStatus(com.pharmacy.management.model.DeliveryStatus.PENDING);
+            sales.add(sale);
+        }
+        List<Sale> saved = salesSummaryService.saveAndRecord(adminId, () -> saleRepository.saveAll(sales));
+        invoiceDispatcher.dispatchCart(saved, request.getUserEmail());
+        return saved;
     }
 }
@@ -0,0 +1,224 @@
+package com.pharmacy.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.management.dto.ColumnarPage;
+import com.pharmacy.management.dto.CursorPage;
+import com.pharmacy.management.dto.SaleRow;
+import com.pharmacy.management.exception.SaleNotFoundException;
+import com.pharmacy.management.model.DeliveryStatus;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.repository.MedicineRepository;
+import com.pharmacy.management.repository.SaleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+public class SaleService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV
+    }
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private InvoiceStore invoiceStore;
+
+    @Autowired
+    private InvoiceRenderer invoiceRenderer;
+
+    /**
+     * Keyset page of sales, newest first. Every page costs one indexed range
+     * read of {@code size + 1} rows, however deep it is.
+     */
+    public CursorPage<Sale> getSalesPage(String adminId, String cursor, int size, boolean includeTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime afterDate = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = CursorPage.decodeCursor(cursor);
+            afterId = key[0];
+            try {
+                afterDate = LocalDateTime.parse(key[1]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<Sale> rows = saleRepository.findPageAfter(adminId, afterDate, afterId, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Sale last = rows.get(limit - 1);
+            nextCursor = CursorPage.encodeCursor(last.getId(), last.getSaleDate().toString());
+        }
+        Long total = includeTotal ? saleRepository.countByAdminId(adminId) : null;
+        return new CursorPage<>(rows, nextCursor, total);
+    }
+
+    /**
+     * Same keyset page as {@link #getSalesPage} reduced to the sales table's
+     * columns and laid out column by column.
+     */
+    public ColumnarPage getSaleRows(String adminId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime afterDate = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = CursorPage.decodeCursor(cursor);
+            afterId = key[0];
+            try {
+                afterDate = LocalDateTime.parse(key[1]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<SaleRow> rows = saleRepository.findRowsAfter(adminId, afterDate, afterId, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            SaleRow last = rows.get(limit - 1);
+            nextCursor = CursorPage.encodeCursor(last.id(), last.saleDate().toString());
+        }
+
+        int n = rows.size();
+        String[] ids = new String[n];
+        String[] medicineNames = new String[n];
+        int[] quantities = new int[n];
+        double[] unitPrices = new double[n];
+        double[] totals = new double[n];
+        LocalDateTime[] saleDates = new LocalDateTime[n];
+        DeliveryStatus[] deliveryStatuses = new DeliveryStatus[n];
+        for (int i = 0; i < n; i++) {
+            SaleRow row = rows.get(i);
+            ids[i] = row.id();
+            medicineNames[i] = row.medicineName();
+            quantities[i] = row.quantity();
+            unitPrices[i] = row.pricePerUnit();
+            totals[i] = row.totalPrice();
+            saleDates[i] = row.saleDate();
+            deliveryStatuses[i] = row.deliveryStatus();
+        }
+        return new ColumnarPage(n, nextCursor)
+                .column("id", ids)
+                .column("medicineName", medicineNames)
+                .column("quantity", quantities)
+                .column("pricePerUnit", unitPrices)
+                .column("totalPrice", totals)
+                .column("saleDate", saleDates)
+                .column("deliveryStatus", deliveryStatuses);
+    }
+
+    /**
+     * The stored invoice for one of the admin's sales. If it was never stored
+     * or has since been evicted, the bill is rendered again from its recorded
+     * sale lines, with the same template as the emailed original, and stored,
+     * so the download always works.
+     */
+    public InvoiceStore.StoredInvoice getInvoice(String saleId, String adminId) throws IOException {
+        Sale sale = saleRepository.findByIdAndAdminId(saleId, adminId)
+                .orElseThrow(() -> new SaleNotFoundException("Sale not found with id: " + saleId));
+        Optional<InvoiceStore.StoredInvoice> stored = invoiceStore.find(sale.getId());
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        if (sale.getBillId() == null) {
+            return invoiceStore.put(List.of(sale.getId()),
+                    invoiceRenderer.renderBill(billedMedicine(sale), sale.getQuantity(), sale.getTotalPrice()));
+        }
+        List<Sale> lines = saleRepository.findByAdminIdAndBillId(adminId, sale.getBillId());
+        return invoiceStore.put(lines.stream().map(Sale::getId).toList(), invoiceRenderer.renderCart(lines));
+    }
+
+    // The medicine as it was billed: the price recorded on the sale, the description from the catalogue
+    private Medicine billedMedicine(Sale sale) {
+        String description = medicineRepository.findByNameAndAdminId(sale.getMedicineName(), sale.getAdminId())
+                .map(Medicine::getDescription)
+                .orElse(null);
+        return new Medicine(sale.getMedicineName(), description, sale.getPricePerUnit(), null, null);
+    }
+
+    /**
+     * Writes the admin's sales between {@code from} and {@code to} (both
+     * inclusive, either optional) straight from a Mongo cursor to {@code out},
+     * one row at a time, so memory stays flat whatever the result size.
+     */
+    public void exportSales(String adminId, LocalDate from, LocalDate to, ExportFormat format, OutputStream out)
+            throws IOException {
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Sale> sales = saleRepository.streamByAdminId(adminId, start, end)) {
+            if (format == ExportFormat.CSV) {
+                writer.write("id,billId,saleDate,medicineName,quantity,pricePerUnit,totalPrice,deliveryStatus\n");
+            }
+            Iterator<Sale> rows = sales.iterator();
+            while (rows.hasNext()) {
+                Sale sale = rows.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, sale);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(sale));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, Sale sale) throws IOException {
+        writer.write(csv(sale.getId()));
+        writer.write(',');
+        writer.write(csv(sale.getBillId()));
+        writer.write(',');
+        writer.write(sale.getSaleDate() != null ? sale.getSaleDate().toString() : "");
+        writer.write(',');
+        writer.write(csv(sale.getMedicineName()));
+        writer.write(',');
+        writer.write(Integer.toString(sale.getQuantity()));
+        writer.write(',');
+        writer.write(Double.toString(sale.getPricePerUnit()));
+        writer.write(',');
+        writer.write(Double.toString(sale.getTotalPrice()));
+        writer.write(',');
+        writer.write(sale.getDeliveryStatus() != null ? sale.getDeliveryStatus().name() : "");
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,95 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.dto.SalesSummary;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.SalesRollup;
+import com.pharmacy.management.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+public class SalesSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesSummaryService.class);
+
+    // Striped by admin: a rebuild only holds up billing for the admin it is rebuilding
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    private final ReentrantReadWriteLock[] locks = Stream.generate(ReentrantReadWriteLock::new)
+            .limit(LOCK_STRIPES)
+            .toArray(ReentrantReadWriteLock[]::new);
+
+    /**
+     * Saves new sales and adds them to the rollups as one step with respect to
+     * {@link #rebuild(String)}: a rebuild never sees a sale that is saved but
+     * not yet counted, which it would otherwise count a second time. The
+     * sales are committed before the rollups are touched, so a rollup failure
+     * is logged rather than failing the bill; a rebuild brings them back in
+     * line.
+     */
+    public List<Sale> saveAndRecord(String adminId, Supplier<List<Sale>> save) {
+        Lock lock = lockOf(adminId).readLock();
+        lock.lock();
+        try {
+            List<Sale> saved = save.get();
+            try {
+                salesRollupRepository.increment(saved);
+            } catch (Exception e) {
+                log.error("Could not update sales rollups for {} sales", saved.size(), e);
+            }
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SalesSummary getSummary(String adminId, int days) {
+        SalesRollup total = salesRollupRepository
+                .findById(SalesRollup.idOf(adminId, SalesRollup.Scope.TOTAL, SalesRollup.TOTAL_KEY))
+                .orElseGet(SalesRollup::new);
+        List<SalesSummary.Entry> byMedicine = salesRollupRepository
+                .findByAdminIdAndScope(adminId, SalesRollup.Scope.MEDICINE)
+                .stream().map(this::toEntry).toList();
+        String from = LocalDate.now().minusDays(Math.max(days, 1) - 1L).toString();
+        List<SalesSummary.Entry> daily = salesRollupRepository
+                .findByAdminIdAndScopeAndKeyGreaterThanEqualOrderByKeyAsc(adminId, SalesRollup.Scope.DAY, from)
+                .stream().map(this::toEntry).toList();
+        return new SalesSummary(total.getRevenue(), total.getQuantity(), total.getSaleCount(), byMedicine, daily);
+    }
+
+    /**
+     * Recomputes the admin's rollups from the sales collection. New sales for
+     * that admin wait until it finishes. The lock is per instance, like the
+     * expiry timing wheel and the search index, so this assumes one backend.
+     */
+    public void rebuild(String adminId) {
+        Lock lock = lockOf(adminId).writeLock();
+        lock.lock();
+        try {
+            salesRollupRepository.rebuild(adminId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantReadWriteLock lockOf(String adminId) {
+        return locks[Math.floorMod(adminId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private SalesSummary.Entry toEntry(SalesRollup rollup) {
+        return new SalesSummary.Entry(rollup.getKey(), rollup.getSaleCount(), rollup.getQuantity(),
+                rollup.getRevenue());
+    }
+}
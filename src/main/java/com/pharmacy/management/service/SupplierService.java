@@ -19,6 +19,8 @@ public class SupplierService {
 
     public Supplier addSupplier(Supplier supplier, String adminId) {
         supplier.setAdminId(adminId);
+        supplier.setId(null);
+        supplier.setVersion(null);
         return supplierRepository.save(supplier);
     }
 
@@ -0,0 +1,145 @@
+package com.pharmacy.management.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel with a one-day tick. Level 0 has one slot per
+ * day for the next {@value #SLOTS} days, each higher level covers
+ * {@value #SLOTS} times the span of the one below, and entries cascade down
+ * a level as the wheel turns. Scheduling, cancelling and firing are O(1)
+ * per entry; advancing a day touches only the slots that turn over.
+ * <p>
+ * Not thread-safe; callers guard it.
+ */
+class TimingWheel<T> {
+
+    static final int SLOTS = 64;
+    private static final int LEVELS = 3;
+
+    private final List<List<Map<String, Entry<T>>>> levels = new ArrayList<>();
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private long currentDay;
+
+    TimingWheel(long currentDay) {
+        this.currentDay = currentDay;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Map<String, Entry<T>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashMap<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    long currentDay() {
+        return currentDay;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Schedules {@code value} under {@code key} to fire on {@code day},
+     * replacing any earlier schedule for the key. Returns false, without
+     * scheduling, if the day is not after the current one.
+     */
+    boolean schedule(String key, long day, T value) {
+        cancel(key);
+        if (day <= currentDay) {
+            return false;
+        }
+        place(new Entry<>(key, day, value));
+        return true;
+    }
+
+    void cancel(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry != null) {
+            levels.get(entry.level).get(entry.slot).remove(key);
+        }
+    }
+
+    /**
+     * Turns the wheel forward to {@code day} and returns everything due on or
+     * before it.
+     */
+    List<T> advanceTo(long day) {
+        List<T> due = new ArrayList<>();
+        while (currentDay < day) {
+            currentDay++;
+            // Bring the next block of each coarser level down before firing today's slot
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if (currentDay % span(level) == 0) {
+                    cascade(level);
+                }
+            }
+            Map<String, Entry<T>> slot = levels.get(0).get((int) (currentDay % SLOTS));
+            for (Entry<T> entry : slot.values()) {
+                entries.remove(entry.key);
+                due.add(entry.value);
+            }
+            slot.clear();
+        }
+        return due;
+    }
+
+    private void cascade(int level) {
+        Map<String, Entry<T>> slot = levels.get(level).get(slotOf(currentDay, level));
+        List<Entry<T>> moved = new ArrayList<>(slot.values());
+        slot.clear();
+        for (Entry<T> entry : moved) {
+            entries.remove(entry.key);
+            if (entry.day <= currentDay) {
+                // Only reachable for the current day itself: fire it from level 0
+                entry.day = currentDay;
+            }
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.day - currentDay;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= span(level + 1)) {
+            level++;
+        }
+        // Beyond the top level's reach: park in its furthest slot and re-place on cascade
+        long day = level == LEVELS - 1 && delta >= span(LEVELS)
+                ? currentDay + span(LEVELS) - span(level)
+                : entry.day;
+        entry.level = level;
+        entry.slot = slotOf(day, level);
+        levels.get(level).get(entry.slot).put(entry.key, entry);
+        entries.put(entry.key, entry);
+    }
+
+    private static long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            span *= SLOTS;
+        }
+        return span;
+    }
+
+    private static int slotOf(long day, int level) {
+        return (int) ((day / span(level)) % SLOTS);
+    }
+
+    private static final class Entry<T> {
+        private final String key;
+        private long day;
+        private final T value;
+        private int level;
+        private int slot;
+
+        private Entry(String key, long day, T value) {
+            this.key = key;
+            this.day = day;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.pharmacy.management;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires a burst of requests at an endpoint that blocks until
+ * {@value #REQUIRED_IN_FLIGHT} requests are blocked at once. Tomcat is capped
+ * at {@value #TOMCAT_THREADS} threads, so with platform threads the requests
+ * could never all be in flight together; with virtual threads they are, and
+ * the test asserts the observed peak rather than a wall-clock time.
+ */
+@SpringBootTest(classes = VirtualThreadLoadTest.BlockingEndpoint.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+                "spring.threads.virtual.enabled=true",
+                "server.tomcat.threads.max=" + VirtualThreadLoadTest.TOMCAT_THREADS
+        })
+class VirtualThreadLoadTest {
+
+    static final int TOMCAT_THREADS = 10;
+    static final int REQUIRED_IN_FLIGHT = 3 * TOMCAT_THREADS;
+    private static final int REQUESTS = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BlockingEndpoint endpoint;
+
+    @Test
+    void blockingRequests_ShouldNotBeCappedByTomcatThreadPool() throws Exception {
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientThreads)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/blocking"))
+                    .build();
+
+            List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, REQUESTS)
+                    .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                    .toList();
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get(60, TimeUnit.SECONDS).statusCode());
+            }
+        }
+
+        assertTrue(endpoint.peak.get() >= REQUIRED_IN_FLIGHT, "at most " + endpoint.peak.get()
+                + " requests were in flight at once on " + TOMCAT_THREADS + " Tomcat threads");
+        assertEquals(0, endpoint.timedOut.get(), "requests gave up waiting for the others to arrive");
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({ ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class })
+    @RestController
+    static class BlockingEndpoint {
+
+        private final CountDownLatch arrived = new CountDownLatch(REQUIRED_IN_FLIGHT);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final AtomicInteger timedOut = new AtomicInteger();
+
+        // Stands in for a slow synchronous Mongo read: the request thread stays blocked
+        @GetMapping("/blocking")
+        public String blocking() throws InterruptedException {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                arrived.countDown();
+                if (!arrived.await(20, TimeUnit.SECONDS)) {
+                    timedOut.incrementAndGet();
+                }
+                return "ok";
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -8,12 +8,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +28,12 @@ class BatchComponentsTest {
     @Mock
     private MedicineRepository medicineRepository;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache inventoryCache;
+
     @InjectMocks
     private MedicineReader medicineReader;
 
@@ -31,20 +43,102 @@ class BatchComponentsTest {
     @Test
     void medicineReader_ShouldReadUntilNull() {
         Medicine m1 = new Medicine();
-        when(medicineRepository.findAll()).thenReturn(Arrays.asList(m1));
+        when(medicineRepository.findUnexpiredAfter(null, null, 2)).thenReturn(Arrays.asList(m1));
+        ReflectionTestUtils.setField(medicineReader, "pageSize", 2);
+        medicineReader.open(new ExecutionContext());
+
+        assertEquals(m1, medicineReader.read());
+        assertNull(medicineReader.read());
+        verify(medicineRepository, times(1)).findUnexpiredAfter(any(), any(), anyInt());
+    }
+
+    @Test
+    void medicineReader_ShouldPageByLastIdAndSaveItInExecutionContext() {
+        Medicine m1 = medicineWithId("a1");
+        Medicine m2 = medicineWithId("a2");
+        Medicine m3 = medicineWithId("a3");
+        when(medicineRepository.findUnexpiredAfter(null, null, 2)).thenReturn(Arrays.asList(m1, m2));
+        when(medicineRepository.findUnexpiredAfter(null, "a2", 2)).thenReturn(Arrays.asList(m3));
+        ReflectionTestUtils.setField(medicineReader, "pageSize", 2);
+        ExecutionContext context = new ExecutionContext();
+        medicineReader.open(context);
+
+        assertEquals(m1, medicineReader.read());
+        assertEquals(m2, medicineReader.read());
+        medicineReader.update(context);
+        assertEquals("a2", context.getString("medicineReader.lastId"));
+
+        assertEquals(m3, medicineReader.read());
+        assertNull(medicineReader.read());
+        medicineReader.update(context);
+        assertEquals("a3", context.getString("medicineReader.lastId"));
+    }
+
+    @Test
+    void medicineReader_OnRestart_ShouldResumeAfterSavedId() {
+        Medicine m3 = medicineWithId("a3");
+        when(medicineRepository.findUnexpiredAfter(null, "a2", 2)).thenReturn(Arrays.asList(m3));
+        ReflectionTestUtils.setField(medicineReader, "pageSize", 2);
+        ExecutionContext saved = new ExecutionContext();
+        saved.putString("medicineReader.lastId", "a2");
+
+        medicineReader.open(saved);
+
+        assertEquals(m3, medicineReader.read());
+        assertNull(medicineReader.read());
+        verify(medicineRepository, never()).findUnexpiredAfter(any(), isNull(), anyInt());
+    }
+
+    @Test
+    void medicineReader_InTenantPartition_ShouldOnlyReadThatTenant() {
+        Medicine m1 = medicineWithId("a1");
+        when(medicineRepository.findUnexpiredAfter("admin1", null, 2)).thenReturn(Arrays.asList(m1));
+        ReflectionTestUtils.setField(medicineReader, "pageSize", 2);
+        ReflectionTestUtils.setField(medicineReader, "adminId", "admin1");
+        medicineReader.open(new ExecutionContext());
 
         assertEquals(m1, medicineReader.read());
         assertNull(medicineReader.read());
     }
 
     @Test
-    void medicineWriter_ShouldSaveAll() {
+    void medicineWriter_ShouldOnlyMarkExpiredItems() {
+        Medicine expired = medicineWithId("a1");
+        expired.setExpired(true);
+        Medicine current = medicineWithId("a2");
+
+        medicineWriter.write(new Chunk<>(Arrays.asList(expired, current)));
+
+        verify(medicineRepository, times(1)).markExpired(eq(List.of("a1")), any(LocalDate.class));
+        verify(medicineRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void medicineWriter_WhenNothingExpired_ShouldNotWrite() {
+        medicineWriter.write(new Chunk<>(Arrays.asList(medicineWithId("a1"))));
+
+        verifyNoInteractions(medicineRepository);
+    }
+
+    @Test
+    void medicineWriter_ShouldEvictInventoryOfEachTenantOnce() {
         Medicine m1 = new Medicine();
-        List<Medicine> items = Arrays.asList(m1);
-        Chunk<Medicine> chunk = new Chunk<>(items);
+        m1.setAdminId("admin1");
+        Medicine m2 = new Medicine();
+        m2.setAdminId("admin1");
+        Medicine m3 = new Medicine();
+        m3.setAdminId("admin2");
+        when(cacheManager.getCache("inventory")).thenReturn(inventoryCache);
 
-        medicineWriter.write(chunk);
+        medicineWriter.write(new Chunk<>(Arrays.asList(m1, m2, m3)));
+
+        verify(inventoryCache, times(1)).evict("admin1");
+        verify(inventoryCache, times(1)).evict("admin2");
+    }
 
-        verify(medicineRepository, times(1)).saveAll(items);
+    private Medicine medicineWithId(String id) {
+        Medicine medicine = new Medicine();
+        medicine.setId(id);
+        return medicine;
     }
 }
@@ -0,0 +1,60 @@
+package com.pharmacy.management.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchMetadataCleanupTest {
+
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @InjectMocks
+    private BatchMetadataCleanup cleanup;
+
+    @Test
+    void purge_ShouldDeleteOnlyInstancesFinishedBeforeRetention() {
+        ReflectionTestUtils.setField(cleanup, "retentionDays", 30);
+        JobInstance old = new JobInstance(1L, "expiryJob");
+        JobInstance recent = new JobInstance(2L, "expiryJob");
+        JobInstance running = new JobInstance(3L, "expiryJob");
+        when(jobExplorer.getJobNames()).thenReturn(List.of("expiryJob"));
+        when(jobExplorer.getJobInstances("expiryJob", 0, 100)).thenReturn(List.of(running, recent, old));
+        when(jobExplorer.getJobExecutions(old)).thenReturn(List.of(finished(old, 45)));
+        when(jobExplorer.getJobExecutions(recent)).thenReturn(List.of(finished(recent, 45), finished(recent, 2)));
+        JobExecution stillRunning = new JobExecution(running, 9L, null);
+        stillRunning.setStatus(BatchStatus.STARTED);
+        when(jobExplorer.getJobExecutions(running)).thenReturn(List.of(stillRunning));
+
+        assertEquals(1, cleanup.purge());
+
+        verify(jobRepository).deleteJobInstance(old);
+        verify(jobRepository, never()).deleteJobInstance(recent);
+        verify(jobRepository, never()).deleteJobInstance(running);
+    }
+
+    private JobExecution finished(JobInstance instance, int daysAgo) {
+        JobExecution execution = new JobExecution(instance, instance.getId() * 10 + daysAgo, null);
+        execution.setStatus(BatchStatus.COMPLETED);
+        execution.setEndTime(LocalDateTime.now().minusDays(daysAgo));
+        return execution;
+    }
+}
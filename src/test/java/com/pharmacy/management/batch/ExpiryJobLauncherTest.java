@@ -0,0 +1,116 @@
+package com.pharmacy.management.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiryJobLauncherTest {
+
+    @Mock
+    private JobLauncher jobLauncher;
+
+    @Mock
+    private Job expiryJob;
+
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @InjectMocks
+    private ExpiryJobLauncher expiryJobLauncher;
+
+    @Test
+    void launch_ShouldIdentifyRunByDateAndTrigger() throws Exception {
+        expiryJobLauncher.launch(LocalDate.of(2026, 3, 1), ExpiryJobLauncher.Trigger.SCHEDULED);
+
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobLauncher).run(eq(expiryJob), parameters.capture());
+        assertEquals("2026-03-01", parameters.getValue().getString("runDate"));
+        assertEquals("scheduled", parameters.getValue().getString("trigger"));
+        assertEquals(2, parameters.getValue().getParameters().size());
+    }
+
+    @Test
+    void launch_ScheduledRunAfterStartupRun_ShouldBeSeparateInstances() throws Exception {
+        LocalDate today = LocalDate.now();
+        expiryJobLauncher.launch(today, ExpiryJobLauncher.Trigger.STARTUP);
+        expiryJobLauncher.launch(today, ExpiryJobLauncher.Trigger.SCHEDULED);
+
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobLauncher, times(2)).run(eq(expiryJob), parameters.capture());
+        assertNotEquals(parameters.getAllValues().get(0), parameters.getAllValues().get(1));
+    }
+
+    @Test
+    void launch_WhenDayAlreadyCompleted_ShouldReturnNull() throws Exception {
+        when(jobLauncher.run(eq(expiryJob), any())).thenThrow(new JobInstanceAlreadyCompleteException("done"));
+
+        assertNull(expiryJobLauncher.launch(LocalDate.now(), ExpiryJobLauncher.Trigger.STARTUP));
+    }
+
+    @Test
+    void recover_ShouldFailInterruptedExecutionsThenRestartTodaysAndLaunchStartupRun() throws Exception {
+        ReflectionTestUtils.setField(expiryJobLauncher, "runOnStartup", true);
+        JobParameters parameters = new JobParametersBuilder().addString("runDate", LocalDate.now().toString())
+                .addString("trigger", "scheduled")
+                .toJobParameters();
+        JobExecution stale = new JobExecution(new JobInstance(1L, "expiryJob"), 7L, parameters);
+        stale.setStatus(BatchStatus.STARTED);
+        StepExecution runningStep = stale.createStepExecution("expiryStep");
+        runningStep.setStatus(BatchStatus.STARTED);
+        StepExecution doneStep = stale.createStepExecution("markExpiredStep");
+        doneStep.setStatus(BatchStatus.COMPLETED);
+        when(expiryJob.getName()).thenReturn("expiryJob");
+        when(jobExplorer.findRunningJobExecutions("expiryJob")).thenReturn(Set.of(stale));
+
+        expiryJobLauncher.recover();
+
+        assertEquals(BatchStatus.FAILED, stale.getStatus());
+        assertNotNull(stale.getEndTime());
+        assertEquals(BatchStatus.FAILED, runningStep.getStatus());
+        assertEquals(BatchStatus.COMPLETED, doneStep.getStatus());
+        verify(jobRepository).update(runningStep);
+        verify(jobRepository, never()).update(doneStep);
+        verify(jobRepository).update(stale);
+        // The interrupted scheduled run is restarted, then today's startup run launched
+        verify(jobLauncher).run(expiryJob, parameters);
+        verify(jobLauncher, times(2)).run(eq(expiryJob), any());
+    }
+
+    @Test
+    void recover_WhenStartupRunDisabled_ShouldNotLaunch() throws Exception {
+        ReflectionTestUtils.setField(expiryJobLauncher, "runOnStartup", false);
+        when(expiryJob.getName()).thenReturn("expiryJob");
+        when(jobExplorer.findRunningJobExecutions("expiryJob")).thenReturn(Set.of());
+
+        expiryJobLauncher.recover();
+
+        verifyNoInteractions(jobLauncher);
+    }
+}
@@ -0,0 +1,64 @@
+package com.pharmacy.management.batch;
+
+import com.mongodb.client.result.UpdateResult;
+import com.pharmacy.management.repository.MedicineRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MarkExpiredTaskletTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache inventoryCache;
+
+    @InjectMocks
+    private MarkExpiredTasklet tasklet;
+
+    @Test
+    void execute_ShouldRecordMatchedAndModifiedCountsAndClearInventoryCache() {
+        when(medicineRepository.markExpired(LocalDate.now())).thenReturn(UpdateResult.acknowledged(5, 3L, null));
+        when(cacheManager.getCache("inventory")).thenReturn(inventoryCache);
+        StepExecution stepExecution = new StepExecution("markExpiredStep", new JobExecution(1L));
+        StepContribution contribution = new StepContribution(stepExecution);
+
+        RepeatStatus status = tasklet.execute(contribution, null);
+
+        assertEquals(RepeatStatus.FINISHED, status);
+        assertEquals(3, contribution.getWriteCount());
+        assertEquals(5, stepExecution.getExecutionContext().getLong("matchedCount"));
+        assertEquals(3, stepExecution.getExecutionContext().getLong("modifiedCount"));
+        verify(inventoryCache).clear();
+    }
+
+    @Test
+    void execute_WhenNothingExpired_ShouldKeepInventoryCache() {
+        when(medicineRepository.markExpired(LocalDate.now())).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(cacheManager.getCache("inventory")).thenReturn(inventoryCache);
+        StepContribution contribution = new StepContribution(new StepExecution("markExpiredStep", new JobExecution(1L)));
+
+        tasklet.execute(contribution, null);
+
+        assertEquals(0, contribution.getWriteCount());
+        verify(inventoryCache, never()).clear();
+    }
+}
@@ -20,7 +20,7 @@ class MedicineProcessorTest {
     @Test
     void process_WhenDateIsExpired_ShouldSetExpiredTrue() {
         Medicine medicine = new Medicine();
-        medicine.setExpiryDate(LocalDate.now().minusDays(1).toString());
+        medicine.setExpiryDate(LocalDate.now().minusDays(1));
         medicine.setExpired(false);
 
         Medicine result = processor.process(medicine);
@@ -31,7 +31,7 @@ class MedicineProcessorTest {
     @Test
     void process_WhenDateIsFuture_ShouldKeepExpiredFalse() {
         Medicine medicine = new Medicine();
-        medicine.setExpiryDate(LocalDate.now().plusDays(10).toString());
+        medicine.setExpiryDate(LocalDate.now().plusDays(10));
         medicine.setExpired(false);
 
         Medicine result = processor.process(medicine);
@@ -51,13 +51,13 @@ class MedicineProcessorTest {
     }
 
     @Test
-    void process_WhenDateIsInvalid_ShouldHandleExceptionGracefully() {
+    void process_WhenDateIsToday_ShouldKeepExpiredFalse() {
         Medicine medicine = new Medicine();
-        medicine.setExpiryDate("invalid-date");
+        medicine.setExpiryDate(LocalDate.now());
         medicine.setExpired(false);
 
         Medicine result = processor.process(medicine);
 
-        assertFalse(result.isExpired()); // Should not crash and not set it to true
+        assertFalse(result.isExpired()); // Still sellable on its expiry day
     }
 }
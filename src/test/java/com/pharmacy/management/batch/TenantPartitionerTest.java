@@ -0,0 +1,49 @@
+package com.pharmacy.management.batch;
+
+import com.pharmacy.management.model.Medicine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TenantPartitionerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private TenantPartitioner partitioner;
+
+    @Test
+    void partition_ShouldCreateOnePartitionPerTenant() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("adminId"), eq(Medicine.class), eq(String.class)))
+                .thenReturn(Arrays.asList("admin1", null, "admin2"));
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        assertEquals(List.of("tenant-admin1", "tenant-admin2"), List.copyOf(partitions.keySet()));
+        assertEquals("admin2", partitions.get("tenant-admin2").getString("adminId"));
+    }
+
+    @Test
+    void partition_WhenNoStock_ShouldReturnNoPartitions() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("adminId"), eq(Medicine.class), eq(String.class)))
+                .thenReturn(List.of());
+
+        assertTrue(partitioner.partition(4).isEmpty());
+    }
+}
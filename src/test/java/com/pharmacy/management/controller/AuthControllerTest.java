@@ -6,6 +6,7 @@ import com.pharmacy.management.model.Role;
 import com.pharmacy.management.model.User;
 import com.pharmacy.management.repository.UserRepository;
 import com.pharmacy.management.security.JwtUtil;
+import com.pharmacy.management.security.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +25,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -52,6 +54,9 @@ class AuthControllerTest {
     @MockBean
     private PasswordEncoder passwordEncoder;
 
+    @MockBean
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -133,4 +138,19 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("User registered successfully"));
     }
+
+    @Test
+    void logout_ShouldRevokeTokensOfCurrentUser() throws Exception {
+        mockMvc.perform(post("/api/auth/logout").principal(() -> "testuser"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Logged out from all sessions"));
+
+        verify(tokenVersionRegistry).revokeAll("testuser");
+    }
+
+    @Test
+    void logout_WithoutAuthentication_ShouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/logout"))
+                .andExpect(status().isUnauthorized());
+    }
 }
@@ -2,6 +2,9 @@ package com.pharmacy.management.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pharmacy.management.dto.BillingRequest;
+import com.pharmacy.management.dto.CartBillingRequest;
+import com.pharmacy.management.dto.CartItem;
+import com.pharmacy.management.model.Sale;
 import com.pharmacy.management.model.Medicine;
 import com.pharmacy.management.service.MedicineService;
 import org.junit.jupiter.api.BeforeEach;
@@ -35,6 +38,9 @@ class MedicineControllerTest {
         @MockBean
         private MedicineService medicineService;
 
+        @MockBean
+        private com.pharmacy.management.service.MedicineImportService medicineImportService;
+
         @Autowired
         private ObjectMapper objectMapper;
 
@@ -123,6 +129,157 @@ class MedicineControllerTest {
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
                                 .andExpect(status().isOk())
-                                .andExpect(content().string("Billing successful. Email sent."));
+                                .andExpect(content().string("Billing successful. Invoice will be emailed shortly."));
+        }
+
+        @Test
+        void billCart_ShouldReturnRecordedSales() throws Exception {
+                CartBillingRequest request = new CartBillingRequest();
+                request.setUserEmail("test@example.com");
+                request.setItems(Arrays.asList(new CartItem("Paracetamol", 2), new CartItem("Ibuprofen", 1)));
+                Sale sale = new Sale();
+                sale.setBillId("bill1");
+                when(medicineService.processCartBilling(any(), anyString())).thenReturn(Arrays.asList(sale, sale));
+
+                mockMvc.perform(post("/api/medicines/bill/cart")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[1].billId").value("bill1"));
+        }
+
+        @Test
+        void billCart_WithEmptyCart_ShouldReturnBadRequest() throws Exception {
+                CartBillingRequest request = new CartBillingRequest();
+                request.setUserEmail("test@example.com");
+                request.setItems(java.util.Collections.emptyList());
+
+                mockMvc.perform(post("/api/medicines/bill/cart")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void getExpiringMedicines_ShouldReturnIsoDates() throws Exception {
+                medicine.setExpiryDate(java.time.LocalDate.of(2026, 11, 1));
+                when(medicineService.getExpiringWithin("adminUser", 14)).thenReturn(Arrays.asList(medicine));
+
+                mockMvc.perform(get("/api/medicines/expiring")
+                                .param("days", "14")
+                                .principal(principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].expiryDate").value("2026-11-01"));
+        }
+
+        @Test
+        void searchMedicines_ShouldReturnRankedHits() throws Exception {
+                when(medicineService.searchMedicines("adminUser", "para", 5)).thenReturn(Arrays.asList(medicine));
+
+                mockMvc.perform(get("/api/medicines/search")
+                                .param("q", "para")
+                                .param("limit", "5")
+                                .principal(principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].name").value(medicine.getName()));
+        }
+
+        @Test
+        void getFilteredMedicines_ShouldAcceptDashboardStatusLabels() throws Exception {
+                java.util.Map<com.pharmacy.management.model.StockStatus, Long> counts =
+                                new java.util.EnumMap<>(com.pharmacy.management.model.StockStatus.class);
+                counts.put(com.pharmacy.management.model.StockStatus.LOW_STOCK, 1L);
+                when(medicineService.getFilteredMedicines(eq("adminUser"),
+                                argThat(f -> f.getStatus() == com.pharmacy.management.model.StockStatus.LOW_STOCK
+                                                && f.getMaxPrice() == 50.0),
+                                eq("quantity"), eq("desc"), eq(0), eq(10)))
+                                .thenReturn(new com.pharmacy.management.dto.MedicineListing(
+                                                Arrays.asList(medicine), 0, 10, 1, 7, counts));
+
+                mockMvc.perform(get("/api/medicines/filter")
+                                .param("status", "Low Stock")
+                                .param("maxPrice", "50")
+                                .param("sort", "quantity")
+                                .param("direction", "desc")
+                                .principal(principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].name").value(medicine.getName()))
+                                .andExpect(jsonPath("$.allCount").value(7))
+                                .andExpect(jsonPath("$.statusCounts.LOW_STOCK").value(1));
+        }
+
+        @Test
+        void getFilteredMedicines_WithUnknownStatus_ShouldReturnBadRequest() throws Exception {
+                mockMvc.perform(get("/api/medicines/filter")
+                                .param("status", "Recalled")
+                                .principal(principal))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void importMedicines_ShouldPickFormatFromContentType() throws Exception {
+                com.pharmacy.management.dto.ImportReport report = new com.pharmacy.management.dto.ImportReport();
+                report.received();
+                report.reject(2, "Zinc", "Quantity must be non-negative", 10);
+                when(medicineImportService.importMedicines(eq("adminUser"),
+                                eq(com.pharmacy.management.service.MedicineImportService.Format.NDJSON), any()))
+                                .thenReturn(report);
+
+                mockMvc.perform(post("/api/medicines/import")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"name\":\"Zinc\",\"price\":2,\"quantity\":-1}\n"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.failed").value(1))
+                                .andExpect(jsonPath("$.errors[0].line").value(2))
+                                .andExpect(jsonPath("$.errors[0].message").value("Quantity must be non-negative"));
+        }
+
+        @Test
+        void importMedicines_WithUnsupportedContentType_ShouldBeRejected() throws Exception {
+                mockMvc.perform(post("/api/medicines/import")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]"))
+                                .andExpect(status().isUnsupportedMediaType());
+        }
+
+        @Test
+        void patchMedicine_ShouldPassOnlyProvidedFields() throws Exception {
+                when(medicineService.patchMedicine(eq("med123"),
+                                argThat(p -> p.getQuantityDelta() == 5 && p.getPrice() == null && p.getName() == null),
+                                eq("adminUser"))).thenReturn(medicine);
+
+                mockMvc.perform(patch("/api/medicines/med123")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantityDelta\":5}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.id").value("med123"));
+        }
+
+        @Test
+        void patchMedicine_WithNegativePrice_ShouldReturnBadRequest() throws Exception {
+                mockMvc.perform(patch("/api/medicines/med123")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"price\":-1}"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void patchMedicines_ShouldReturnBulkResult() throws Exception {
+                when(medicineService.patchMedicines(argThat(list -> list.size() == 2), eq("adminUser")))
+                                .thenReturn(new com.pharmacy.management.dto.BulkPatchResult(2, 2, 2,
+                                                java.util.List.of()));
+
+                mockMvc.perform(patch("/api/medicines/bulk")
+                                .principal(principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"updates\":[{\"id\":\"a\",\"price\":5},{\"id\":\"b\",\"price\":6}]}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.modified").value(2));
         }
 }
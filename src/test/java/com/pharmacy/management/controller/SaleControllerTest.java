@@ -1,26 +1,45 @@
 package com.pharmacy.management.controller;
 
+import com.pharmacy.management.dto.ColumnarPage;
+import com.pharmacy.management.dto.CursorPage;
+import com.pharmacy.management.dto.SalesSummary;
+import com.pharmacy.management.exception.SaleNotFoundException;
 import com.pharmacy.management.model.Sale;
 import com.pharmacy.management.repository.SaleRepository;
+import com.pharmacy.management.service.InvoiceDownloadService;
+import com.pharmacy.management.service.InvoiceStore;
+import com.pharmacy.management.service.SaleService;
+import com.pharmacy.management.service.SalesSummaryService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SaleController.class)
-@ContextConfiguration(classes = { SaleController.class,
+@ContextConfiguration(classes = { SaleController.class, InvoiceDownloadService.class,
         com.pharmacy.management.exception.GlobalExceptionHandler.class })
 @AutoConfigureMockMvc(addFilters = false)
 class SaleControllerTest {
@@ -31,6 +50,12 @@ class SaleControllerTest {
     @MockBean
     private SaleRepository saleRepository;
 
+    @MockBean
+    private SaleService saleService;
+
+    @MockBean
+    private SalesSummaryService salesSummaryService;
+
     @Test
     void getAllSales_ShouldReturnList() throws Exception {
         Sale sale = new Sale();
@@ -44,4 +69,122 @@ class SaleControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("sale1"));
     }
+
+    @Test
+    void getSummary_ShouldReturnRollups() throws Exception {
+        SalesSummary summary = new SalesSummary(150.0, 15, 3,
+                Arrays.asList(new SalesSummary.Entry("Paracetamol", 3, 15, 150.0)), Collections.emptyList());
+
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+        when(salesSummaryService.getSummary(eq("admin"), eq(30))).thenReturn(summary);
+
+        mockMvc.perform(get("/api/sales/summary").principal(mockPrincipal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRevenue").value(150.0))
+                .andExpect(jsonPath("$.byMedicine[0].name").value("Paracetamol"))
+                .andExpect(jsonPath("$.byMedicine[0].totalQty").value(15));
+    }
+
+    @Test
+    void getSalesPage_ShouldReturnCursorPage() throws Exception {
+        Sale sale = new Sale();
+        sale.setId("sale1");
+
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+        when(saleService.getSalesPage(eq("admin"), isNull(), eq(20), eq(false)))
+                .thenReturn(new CursorPage<>(Arrays.asList(sale), "next-token", null));
+
+        mockMvc.perform(get("/api/sales/page").principal(mockPrincipal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value("sale1"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void getSaleRows_ShouldReturnColumnArrays() throws Exception {
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+        when(saleService.getSaleRows(eq("admin"), isNull(), eq(50)))
+                .thenReturn(new ColumnarPage(2, null)
+                        .column("id", new String[] { "s2", "s1" })
+                        .column("quantity", new int[] { 3, 1 }));
+
+        mockMvc.perform(get("/api/sales/rows").principal(mockPrincipal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.columns.id[1]").value("s1"))
+                .andExpect(jsonPath("$.columns.quantity[0]").value(3))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void exportSales_AsCsv_ShouldStreamAttachment() throws Exception {
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+
+        MvcResult result = mockMvc
+                .perform(get("/api/sales/export").param("format", "csv").param("from", "2026-01-01")
+                        .principal(mockPrincipal))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"sales.csv\""));
+        verify(saleService).exportSales(eq("admin"), eq(LocalDate.of(2026, 1, 1)), isNull(),
+                eq(SaleService.ExportFormat.CSV), any());
+    }
+
+    @Test
+    void exportSales_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        Principal mockPrincipal = mock(Principal.class);
+
+        mockMvc.perform(get("/api/sales/export").param("format", "xml").principal(mockPrincipal))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getInvoice_ShouldServeStoredFileWithCachingHeaders(@TempDir Path dir) throws Exception {
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+        byte[] pdf = "%PDF-1.7 invoice".getBytes();
+        when(saleService.getInvoice("sale1", "admin")).thenReturn(storedInvoice(dir, pdf));
+
+        mockMvc.perform(get("/api/sales/sale1/invoice").principal(mockPrincipal))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(content().bytes(pdf))
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(header().string("Cache-Control", "max-age=86400, private"));
+    }
+
+    @Test
+    void getInvoice_WhenETagMatches_ShouldReturnNotModified(@TempDir Path dir) throws Exception {
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+        when(saleService.getInvoice("sale1", "admin")).thenReturn(storedInvoice(dir, "%PDF".getBytes()));
+
+        mockMvc.perform(get("/api/sales/sale1/invoice").header("If-None-Match", "\"abc123\"")
+                        .principal(mockPrincipal))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getInvoice_ForUnknownSale_ShouldReturnNotFound() throws Exception {
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("admin");
+        when(saleService.getInvoice("missing", "admin")).thenThrow(new SaleNotFoundException("Sale not found"));
+
+        mockMvc.perform(get("/api/sales/missing/invoice").principal(mockPrincipal))
+                .andExpect(status().isNotFound());
+    }
+
+    private InvoiceStore.StoredInvoice storedInvoice(Path dir, byte[] pdf) throws Exception {
+        Path file = Files.write(dir.resolve("abc123.pdf"), pdf);
+        return new InvoiceStore.StoredInvoice("abc123", file, pdf.length, false, Files.getLastModifiedTime(file));
+    }
 }
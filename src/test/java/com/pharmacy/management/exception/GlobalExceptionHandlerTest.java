@@ -1,6 +1,8 @@
 package com.pharmacy.management.exception;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -17,6 +19,13 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void handleSaleNotFound_ShouldReturnNotFound() {
+        SaleNotFoundException ex = new SaleNotFoundException("Not found");
+        ResponseEntity<?> response = handler.handleSaleNotFound(ex);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     @Test
     void handleInsufficientStock_ShouldReturnBadRequest() {
         InsufficientStockException ex = new InsufficientStockException("Insufficient");
@@ -24,6 +33,27 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void handleConcurrentUpdate_ShouldReturnConflict() {
+        ConcurrentUpdateException ex = new ConcurrentUpdateException("Conflict");
+        ResponseEntity<?> response = handler.handleConcurrentUpdate(ex);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void handleOptimisticLocking_ShouldReturnConflict() {
+        OptimisticLockingFailureException ex = new OptimisticLockingFailureException("Stale version");
+        ResponseEntity<?> response = handler.handleOptimisticLocking(ex);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void handleDuplicateKey_ShouldReturnConflict() {
+        DuplicateKeyException ex = new DuplicateKeyException("E11000 duplicate key error");
+        ResponseEntity<?> response = handler.handleDuplicateKey(ex);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
     @Test
     void handleIllegalArgument_ShouldReturnBadRequest() {
         IllegalArgumentException ex = new IllegalArgumentException("Invalid");
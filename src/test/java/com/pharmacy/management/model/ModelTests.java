@@ -12,7 +12,7 @@ class ModelTests {
         medicine.setName("Paracetamol");
         medicine.setPrice(10.0);
         medicine.setQuantity(100);
-        medicine.setExpiryDate("2025-12-31");
+        medicine.setExpiryDate(java.time.LocalDate.of(2025, 12, 31));
         medicine.setAdminId("admin1");
         medicine.setExpired(false);
 
@@ -20,7 +20,7 @@ class ModelTests {
         assertEquals("Paracetamol", medicine.getName());
         assertEquals(10.0, medicine.getPrice());
         assertEquals(100, medicine.getQuantity());
-        assertEquals("2025-12-31", medicine.getExpiryDate());
+        assertEquals(java.time.LocalDate.of(2025, 12, 31), medicine.getExpiryDate());
         assertEquals("admin1", medicine.getAdminId());
         assertFalse(medicine.isExpired());
     }
@@ -0,0 +1,198 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.dto.MedicinePatch;
+import com.pharmacy.management.model.Medicine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers one SKU from many tills at once. Needs Docker; skipped otherwise.
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class MedicineRepositoryConcurrencyTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    private static final String ADMIN = "admin";
+    private static final int STOCK = 500;
+
+    @BeforeEach
+    void setUp() {
+        medicineRepository.deleteAll();
+    }
+
+    @Test
+    void decrementStock_UnderContention_ShouldNeverOversellOrLoseUpdates() throws Exception {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, STOCK,
+                LocalDate.now().plusYears(1));
+        medicine.setAdminId(ADMIN);
+        String id = medicineRepository.save(medicine).getId();
+
+        int threads = 32;
+        int attemptsPerThread = 40; // 1280 attempts for 500 units
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int sold = 0;
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (medicineRepository.decrementStock(id, ADMIN, 1).isPresent()) {
+                        sold++;
+                    }
+                }
+                return sold;
+            }));
+        }
+        start.countDown();
+
+        int totalSold = 0;
+        for (Future<Integer> result : results) {
+            totalSold += result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(STOCK, totalSold);
+        assertEquals(0, medicineRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void decrementStock_WhenExpired_ShouldNotMatch() {
+        Medicine medicine = new Medicine("Old Syrup", "Expired", 5.0, 10,
+                LocalDate.now().minusDays(1));
+        medicine.setAdminId(ADMIN);
+        String id = medicineRepository.save(medicine).getId();
+
+        assertTrue(medicineRepository.decrementStock(id, ADMIN, 1).isEmpty());
+        assertEquals(10, medicineRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void decrementStockByName_ShouldReturnPostImage() {
+        Medicine medicine = new Medicine("Ibuprofen", "Anti-inflammatory", 8.0, 10, null);
+        medicine.setAdminId(ADMIN);
+        medicineRepository.save(medicine);
+
+        Medicine updated = medicineRepository.decrementStockByName("Ibuprofen", ADMIN, 4).orElseThrow();
+
+        assertEquals(6, updated.getQuantity());
+        assertTrue(medicineRepository.decrementStockByName("Ibuprofen", ADMIN, 7).isEmpty());
+        assertTrue(medicineRepository.decrementStockByName("Ibuprofen", "other-admin", 1).isEmpty());
+    }
+
+    @Test
+    void patch_ConcurrentWithSales_ShouldKeepSoldUnits() throws Exception {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, STOCK,
+                LocalDate.now().plusYears(1));
+        medicine.setAdminId(ADMIN);
+        String id = medicineRepository.save(medicine).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?> sales = pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < 100; i++) {
+                medicineRepository.decrementStock(id, ADMIN, 1);
+            }
+            return null;
+        });
+        Future<?> edits = pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < 100; i++) {
+                MedicinePatch patch = new MedicinePatch();
+                patch.setPrice(10.0 + i);
+                patch.setQuantityDelta(1);
+                medicineRepository.patch(id, ADMIN, patch, LocalDate.now());
+            }
+            return null;
+        });
+        start.countDown();
+        sales.get(60, TimeUnit.SECONDS);
+        edits.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        Medicine after = medicineRepository.findById(id).orElseThrow();
+        assertEquals(STOCK, after.getQuantity());
+        assertEquals(109.0, after.getPrice());
+    }
+
+    @Test
+    void patch_WithNegativeDeltaBeyondStock_ShouldNotApply() {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, 3, null);
+        medicine.setAdminId(ADMIN);
+        String id = medicineRepository.save(medicine).getId();
+        MedicinePatch patch = new MedicinePatch();
+        patch.setQuantityDelta(-5);
+
+        assertTrue(medicineRepository.patch(id, ADMIN, patch, LocalDate.now()).isEmpty());
+        assertEquals(3, medicineRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void decrementStockBulk_WhenALineFails_ShouldRestoreLinesEvenAfterFullSave() {
+        Medicine first = new Medicine("Paracetamol", "Pain relief", 10.0, 10, null);
+        first.setAdminId(ADMIN);
+        String firstId = medicineRepository.save(first).getId();
+        Medicine second = new Medicine("Ibuprofen", "Pain relief", 8.0, 1, null);
+        second.setAdminId(ADMIN);
+        String secondId = medicineRepository.save(second).getId();
+
+        assertTrue(medicineRepository.decrementStockBulk(ADMIN, "bill1", Map.of(firstId, 2)));
+        // An edit saving the whole document between bills must keep the bill markers
+        Medicine edited = medicineRepository.findById(firstId).orElseThrow();
+        edited.setPrice(11.0);
+        medicineRepository.save(edited);
+        assertEquals(List.of("bill1"), medicineRepository.findById(firstId).orElseThrow().getRecentBills());
+
+        Map<String, Integer> cart = new LinkedHashMap<>();
+        cart.put(firstId, 3);
+        cart.put(secondId, 5);
+        assertFalse(medicineRepository.decrementStockBulk(ADMIN, "bill2", cart));
+
+        Medicine after = medicineRepository.findById(firstId).orElseThrow();
+        assertEquals(8, after.getQuantity());
+        assertEquals(List.of("bill1"), after.getRecentBills());
+        assertEquals(1, medicineRepository.findById(secondId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void save_WhenCopyIsStale_ShouldFailInsteadOfOverwritingSale() {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, 20, null);
+        medicine.setAdminId(ADMIN);
+        String id = medicineRepository.save(medicine).getId();
+        Medicine stale = medicineRepository.findById(id).orElseThrow();
+
+        medicineRepository.decrementStock(id, ADMIN, 5);
+        stale.setPrice(12.0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> medicineRepository.save(stale));
+        assertEquals(15, medicineRepository.findById(id).orElseThrow().getQuantity());
+    }
+}
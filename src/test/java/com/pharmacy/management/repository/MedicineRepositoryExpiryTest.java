@@ -0,0 +1,124 @@
+package com.pharmacy.management.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.pharmacy.management.batch.ExpiryDateMigrationTasklet;
+import com.pharmacy.management.model.Medicine;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the date-based expiry queries against a real server. Needs Docker; skipped otherwise.
+ */
+@DataMongoTest
+@Import(ExpiryDateMigrationTasklet.class)
+@Testcontainers(disabledWithoutDocker = true)
+class MedicineRepositoryExpiryTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ExpiryDateMigrationTasklet migrationTasklet;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        medicineRepository.deleteAll();
+    }
+
+    @Test
+    void markExpired_ShouldFlagOnlyPastDatesAcrossTenants() {
+        Medicine past = save("admin1", today.minusDays(1));
+        Medicine otherTenant = save("admin2", today.minusYears(1));
+        Medicine dueToday = save("admin1", today);
+        Medicine future = save("admin1", today.plusDays(30));
+        Medicine noDate = save("admin1", null);
+
+        UpdateResult result = medicineRepository.markExpired(today);
+
+        assertEquals(2, result.getMatchedCount());
+        assertEquals(2, result.getModifiedCount());
+        assertTrue(reload(past).isExpired());
+        assertTrue(reload(otherTenant).isExpired());
+        assertFalse(reload(dueToday).isExpired());
+        assertFalse(reload(future).isExpired());
+        assertFalse(reload(noDate).isExpired());
+
+        assertEquals(0, medicineRepository.markExpired(today).getMatchedCount());
+    }
+
+    @Test
+    void findExpiringBetween_ShouldReturnTenantRangeSoonestFirst() {
+        Medicine inTenDays = save("admin1", today.plusDays(10));
+        Medicine dueToday = save("admin1", today);
+        save("admin1", today.plusDays(31));
+        save("admin1", today.minusDays(1));
+        save("admin2", today.plusDays(5));
+
+        List<Medicine> expiring = medicineRepository.findExpiringBetween("admin1", today, today.plusDays(30));
+
+        assertEquals(List.of(dueToday.getId(), inTenDays.getId()),
+                expiring.stream().map(Medicine::getId).toList());
+    }
+
+    @Test
+    void migration_ShouldConvertStringDatesAndKeepUnparseableOnes() {
+        String collection = mongoTemplate.getCollectionName(Medicine.class);
+        mongoTemplate.insert(legacy("m1", "2024-03-01"), collection);
+        mongoTemplate.insert(legacy("m2", ""), collection);
+        mongoTemplate.insert(legacy("m3", "01/02/2024"), collection);
+        StepContribution contribution = new StepContribution(new StepExecution("migrate", new JobExecution(1L)));
+
+        migrationTasklet.execute(contribution, null);
+
+        assertEquals(LocalDate.of(2024, 3, 1), medicineRepository.findById("m1").orElseThrow().getExpiryDate());
+        assertNull(medicineRepository.findById("m2").orElseThrow().getExpiryDate());
+        Document unparseable = mongoTemplate.findById("m3", Document.class, collection);
+        assertFalse(unparseable.containsKey("expiryDate"));
+        assertEquals("01/02/2024", unparseable.getString("legacyExpiryDate"));
+        assertFalse(mongoTemplate.exists(ExpiryDateMigrationTasklet.stringExpiryDates(), Medicine.class));
+        assertInstanceOf(Date.class, mongoTemplate.findById("m1", Document.class, collection).get("expiryDate"));
+    }
+
+    private Document legacy(String id, String expiryDate) {
+        return new Document("_id", id).append("adminId", "admin1").append("name", id)
+                .append("price", 1.0).append("quantity", 5).append("expired", false)
+                .append("expiryDate", expiryDate);
+    }
+
+    private Medicine save(String adminId, LocalDate expiryDate) {
+        Medicine medicine = new Medicine("Medicine", "", 1.0, 10, expiryDate);
+        medicine.setAdminId(adminId);
+        return medicineRepository.save(medicine);
+    }
+
+    private Medicine reload(Medicine medicine) {
+        return medicineRepository.findById(medicine.getId()).orElseThrow();
+    }
+}
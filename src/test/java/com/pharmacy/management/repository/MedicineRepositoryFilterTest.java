@@ -0,0 +1,124 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.dto.MedicineFilter;
+import com.pharmacy.management.dto.MedicineRow;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.StockStatus;
+import com.pharmacy.management.repository.MedicineRepositoryCustom.StatusCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the status filters and the facet aggregation agree on a real
+ * server. Needs Docker; skipped otherwise.
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class MedicineRepositoryFilterTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private final PageRequest byName = PageRequest.of(0, 10, Sort.by("name", "_id"));
+
+    @BeforeEach
+    void setUp() {
+        medicineRepository.deleteAll();
+        save("admin1", "Aspirin", 5.0, 50, today.plusDays(30), false);
+        save("admin1", "Betadine", 12.0, 4, null, false);
+        save("admin1", "Cetirizine", 3.0, 0, today.plusDays(10), false);
+        save("admin1", "Dolo", 2.0, 20, today.minusDays(1), false);
+        save("admin1", "Eno", 1.0, 8, today.plusDays(5), true);
+        save("admin2", "Aspirin", 5.0, 50, today.plusDays(30), false);
+    }
+
+    @Test
+    void findFiltered_ShouldApplyEachStatusRule() {
+        assertEquals(List.of("Aspirin", "Betadine"), names(StockStatus.AVAILABLE));
+        assertEquals(List.of("Betadine"), names(StockStatus.LOW_STOCK));
+        assertEquals(List.of("Cetirizine"), names(StockStatus.OUT_OF_STOCK));
+        assertEquals(List.of("Dolo", "Eno"), names(StockStatus.EXPIRED));
+    }
+
+    @Test
+    void findFiltered_ShouldApplyPriceRangeAndSort() {
+        MedicineFilter filter = new MedicineFilter(null, 2.0, 12.0, null);
+
+        List<Medicine> rows = medicineRepository.findFiltered("admin1", filter, today,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price").and(Sort.by("_id"))));
+
+        assertEquals(List.of("Betadine", "Aspirin", "Cetirizine", "Dolo"), rows.stream().map(Medicine::getName).toList());
+    }
+
+    @Test
+    void countByStatus_ShouldMatchTheFiltersInOneAggregation() {
+        StatusCounts counts = medicineRepository.countByStatus("admin1", new MedicineFilter(), today);
+
+        assertEquals(5, counts.total());
+        for (StockStatus status : StockStatus.values()) {
+            assertEquals(names(status).size(), counts.byStatus().get(status), status.name());
+        }
+    }
+
+    @Test
+    void countByStatus_ShouldIgnoreStatusButApplyQuantityThreshold() {
+        StatusCounts counts = medicineRepository.countByStatus("admin1",
+                new MedicineFilter(StockStatus.EXPIRED, null, null, 10), today);
+
+        assertEquals(3, counts.total());
+        assertEquals(1, counts.byStatus().get(StockStatus.AVAILABLE));
+        assertEquals(1, counts.byStatus().get(StockStatus.EXPIRED));
+    }
+
+    @Test
+    void countByStatus_WhenTenantEmpty_ShouldReturnZeros() {
+        StatusCounts counts = medicineRepository.countByStatus("nobody", new MedicineFilter(), today);
+
+        assertEquals(0, counts.total());
+        assertEquals(0, counts.byStatus().get(StockStatus.AVAILABLE));
+    }
+
+    @Test
+    void findRowsAfter_ShouldProjectTableColumnsInNameOrder() {
+        List<MedicineRow> rows = medicineRepository.findRowsAfter("admin1", null, null, 2);
+
+        assertEquals(2, rows.size());
+        assertEquals("Aspirin", rows.get(0).name());
+        assertEquals(50, rows.get(0).quantity());
+        assertEquals(today.plusDays(30), rows.get(0).expiryDate());
+        assertNotNull(rows.get(0).id());
+
+        List<MedicineRow> next = medicineRepository.findRowsAfter("admin1", rows.get(1).name(), rows.get(1).id(), 10);
+        assertEquals(List.of("Cetirizine", "Dolo", "Eno"), next.stream().map(MedicineRow::name).toList());
+    }
+
+    private List<String> names(StockStatus status) {
+        return medicineRepository.findFiltered("admin1", new MedicineFilter(status, null, null, null), today, byName)
+                .stream().map(Medicine::getName).toList();
+    }
+
+    private void save(String adminId, String name, double price, int quantity, LocalDate expiryDate, boolean expired) {
+        Medicine medicine = new Medicine(name, "", price, quantity, expiryDate);
+        medicine.setAdminId(adminId);
+        medicine.setExpired(expired);
+        medicineRepository.save(medicine);
+    }
+}
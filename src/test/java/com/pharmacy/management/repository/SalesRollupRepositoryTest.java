@@ -0,0 +1,81 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.SalesRollup;
+import com.pharmacy.management.model.SalesRollup.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rollup rebuild against a real Mongo. Needs Docker; skipped otherwise.
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class SalesRollupRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    private static final String ADMIN = "admin";
+
+    @BeforeEach
+    void setUp() {
+        salesRollupRepository.deleteAll();
+        saleRepository.deleteAll();
+    }
+
+    @Test
+    void rebuild_ShouldReplaceDriftedTotalsWithSalesHistory() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        Sale first = saleRepository.save(new Sale(ADMIN, "Paracetamol", 2, 10.0, 20.0, yesterday));
+        saleRepository.save(new Sale(ADMIN, "Ibuprofen", 1, 8.0, 8.0, yesterday));
+        // Only one sale made it into the rollups, plus a medicine with no sales left
+        salesRollupRepository.increment(List.of(first,
+                new Sale(ADMIN, "Aspirin", 5, 1.0, 5.0, yesterday)));
+
+        salesRollupRepository.rebuild(ADMIN);
+
+        SalesRollup total = rollup(Scope.TOTAL, SalesRollup.TOTAL_KEY);
+        assertEquals(2, total.getSaleCount());
+        assertEquals(3, total.getQuantity());
+        assertEquals(28.0, total.getRevenue(), 1e-9);
+        assertEquals(1, rollup(Scope.MEDICINE, "Ibuprofen").getSaleCount());
+        assertEquals(2, rollup(Scope.DAY, yesterday.toLocalDate().toString()).getSaleCount());
+        assertTrue(salesRollupRepository.findById(SalesRollup.idOf(ADMIN, Scope.MEDICINE, "Aspirin")).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldBeIdempotent() {
+        Sale sale = saleRepository.save(new Sale(ADMIN, "Paracetamol", 2, 10.0, 20.0,
+                LocalDateTime.now().minusHours(1)));
+        salesRollupRepository.increment(List.of(sale));
+
+        salesRollupRepository.rebuild(ADMIN);
+        salesRollupRepository.rebuild(ADMIN);
+
+        assertEquals(1, rollup(Scope.TOTAL, SalesRollup.TOTAL_KEY).getSaleCount());
+        assertEquals(20.0, rollup(Scope.MEDICINE, "Paracetamol").getRevenue(), 1e-9);
+    }
+
+    private SalesRollup rollup(Scope scope, String key) {
+        return salesRollupRepository.findById(SalesRollup.idOf(ADMIN, scope, key)).orElseThrow();
+    }
+}
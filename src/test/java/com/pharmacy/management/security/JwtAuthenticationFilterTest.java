@@ -1,5 +1,6 @@
 package com.pharmacy.management.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +16,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,9 +25,6 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtUtil jwtUtil;
 
-    @Mock
-    private CustomUserDetailsService userDetailsService;
-
     @Mock
     private HttpServletRequest request;
 
@@ -50,13 +49,15 @@ class JwtAuthenticationFilterTest {
         UserDetails userDetails = mock(UserDetails.class);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.isTokenValid(token, userDetails)).thenReturn(true);
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn(username);
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
+        when(jwtUtil.toUserDetails(claims)).thenReturn(userDetails);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
+        verify(jwtUtil, times(1)).verifyToken(token);
         assert SecurityContextHolder.getContext().getAuthentication() != null;
     }
 
@@ -74,7 +75,23 @@ class JwtAuthenticationFilterTest {
     void doFilterInternal_WithInvalidToken_ShouldNotSetAuthentication() throws ServletException, IOException {
         String token = "invalid-token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn(null);
+        when(jwtUtil.verifyToken(token)).thenReturn(null);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(jwtUtil, never()).toUserDetails(any());
+        assert SecurityContextHolder.getContext().getAuthentication() == null;
+    }
+
+    @Test
+    void doFilterInternal_WithRevokedToken_ShouldNotSetAuthentication() throws ServletException, IOException {
+        String token = "revoked-token";
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("testuser");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
+        when(jwtUtil.toUserDetails(claims)).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -1,19 +1,36 @@
 package com.pharmacy.management.security;
 
+import com.pharmacy.management.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
 
 class JwtUtilTest {
 
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private TokenVersionRegistry tokenVersionRegistry = new TokenVersionRegistry();
+
     @InjectMocks
     private JwtUtil jwtUtil;
 
@@ -22,8 +39,14 @@ class JwtUtilTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "cacheSize", 100L);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "cacheTtlMs", 60000L);
+        tokenVersionRegistry.init();
         ReflectionTestUtils.setField(jwtUtil, "secretKey", SECRET_KEY);
         ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 100L);
+        jwtUtil.init();
     }
 
     @Test
@@ -65,4 +88,67 @@ class JwtUtilTest {
 
         assertFalse(jwtUtil.isTokenValid(token, userDetails));
     }
+
+    @Test
+    void verifyToken_WhenSignedWithAnotherKey_ShouldReturnNull() {
+        String forged = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256))
+                .compact();
+
+        assertNull(jwtUtil.verifyToken(forged));
+        assertNull(jwtUtil.verifyToken("not-a-jwt"));
+    }
+
+    @Test
+    void verifyToken_WhenCalledTwice_ShouldReturnCachedClaims() {
+        UserDetails userDetails = new User("testuser", "password", Collections.emptyList());
+        String token = jwtUtil.generateToken(userDetails);
+
+        Claims first = jwtUtil.verifyToken(token);
+
+        assertNotNull(first);
+        assertEquals("testuser", first.getSubject());
+        assertSame(first, jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void verifyToken_WhenCachedTokenExpires_ShouldReturnNull() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 1000L);
+        UserDetails userDetails = new User("testuser", "password", Collections.emptyList());
+        String token = jwtUtil.generateToken(userDetails);
+        assertNotNull(jwtUtil.verifyToken(token));
+
+        Thread.sleep(1100);
+
+        assertNull(jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void toUserDetails_ShouldRebuildUserFromTokenClaims() {
+        UserDetails userDetails = new User("testuser", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        String token = jwtUtil.generateToken(userDetails);
+
+        UserDetails restored = jwtUtil.toUserDetails(jwtUtil.verifyToken(token));
+
+        assertEquals("testuser", restored.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(restored.getAuthorities()));
+    }
+
+    @Test
+    void revokeAll_ShouldInvalidateEarlierTokensOnly() {
+        UserDetails userDetails = new User("testuser", "password", Collections.emptyList());
+        String oldToken = jwtUtil.generateToken(userDetails);
+
+        when(userRepository.incrementTokenVersion("testuser")).thenReturn(1);
+        tokenVersionRegistry.revokeAll("testuser");
+        String newToken = jwtUtil.generateToken(userDetails);
+
+        assertFalse(jwtUtil.isTokenValid(oldToken, userDetails));
+        assertNull(jwtUtil.toUserDetails(jwtUtil.verifyToken(oldToken)));
+        assertTrue(jwtUtil.isTokenValid(newToken, userDetails));
+        assertNotNull(jwtUtil.toUserDetails(jwtUtil.verifyToken(newToken)));
+    }
 }
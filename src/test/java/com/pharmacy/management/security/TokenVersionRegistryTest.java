@@ -0,0 +1,79 @@
+package com.pharmacy.management.security;
+
+import com.pharmacy.management.model.Role;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "cacheSize", 100L);
+        ReflectionTestUtils.setField(registry, "cacheTtlMs", 60000L);
+        registry.init();
+    }
+
+    @Test
+    void isCurrent_AfterRestart_ShouldUseStoredVersion() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user(2)));
+
+        assertTrue(registry.isCurrent("admin", 2));
+        assertFalse(registry.isCurrent("admin", 1));
+        assertFalse(registry.isCurrent("admin", 0));
+    }
+
+    @Test
+    void isCurrent_WithTokenNewerThanCache_ShouldAccept() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user(1)));
+
+        assertTrue(registry.isCurrent("admin", 1));
+        assertTrue(registry.isCurrent("admin", 2));
+        verify(userRepository, times(1)).findByUsername("admin");
+    }
+
+    @Test
+    void revokeAll_ShouldPersistAndRejectOlderTokens() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user(0)));
+        assertTrue(registry.isCurrent("admin", 0));
+        when(userRepository.incrementTokenVersion("admin")).thenReturn(1);
+
+        registry.revokeAll("admin");
+
+        assertFalse(registry.isCurrent("admin", 0));
+        assertTrue(registry.isCurrent("admin", 1));
+    }
+
+    @Test
+    void issueVersion_ShouldReadStoreEvenWhenCached() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user(0)), Optional.of(user(3)));
+
+        assertEquals(0, registry.currentVersion("admin"));
+        assertEquals(3, registry.issueVersion("admin"));
+        assertFalse(registry.isCurrent("admin", 2));
+    }
+
+    private User user(int tokenVersion) {
+        User user = new User("admin", "secret", Role.ADMIN);
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+}
@@ -11,8 +11,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSender;
 
-import java.io.IOException;
-
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -22,6 +20,9 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Mock
+    private MailDeliveryService mailDelivery;
+
     @InjectMocks
     private EmailService emailService;
 
@@ -36,13 +37,14 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendBillEmail_ShouldGeneratePdfAndSendEmail() throws MessagingException, IOException {
+    void sendBillEmail_ShouldAttachInvoiceAndSendEmail() throws MessagingException {
         MimeMessage mockMimeMessage = mock(MimeMessage.class);
         when(mailSender.createMimeMessage()).thenReturn(mockMimeMessage);
 
-        emailService.sendBillEmail("test@example.com", medicine, 2, 200.0);
+        emailService.sendBillEmail("test@example.com", medicine, new byte[] { '%', 'P', 'D', 'F' });
 
         verify(mailSender, times(1)).createMimeMessage();
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(mailDelivery, times(1)).send(mockMimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
     }
 }
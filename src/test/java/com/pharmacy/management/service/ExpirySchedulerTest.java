@@ -0,0 +1,107 @@
+package com.pharmacy.management.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpirySchedulerTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache inventoryCache;
+
+    @InjectMocks
+    private ExpiryScheduler expiryScheduler;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void load_ShouldTrackOnlyDatedUnexpiredMedicines() {
+        when(medicineRepository.findUnexpiredAfter(null, null, 500)).thenReturn(Arrays.asList(
+                medicine("m1", today.plusDays(10)),
+                medicine("m2", null),
+                medicine("m3", today)));
+
+        expiryScheduler.load();
+
+        assertEquals(2, expiryScheduler.getTrackedCount());
+    }
+
+    @Test
+    void load_ShouldKeepChangesMadeBeforeAndWhileLoading() {
+        expiryScheduler.track(medicine("early", today.plusDays(4)));
+        when(medicineRepository.findUnexpiredAfter(null, null, 500)).thenAnswer(invocation -> {
+            // Writes landing while the page is read: one new medicine, one deleted after it was read
+            expiryScheduler.track(medicine("added", today.plusDays(2)));
+            expiryScheduler.untrack("deleted");
+            return List.of(medicine("kept", today.plusDays(10)), medicine("deleted", today.plusDays(3)));
+        });
+
+        expiryScheduler.load();
+
+        assertEquals(3, expiryScheduler.getTrackedCount());
+        expiryScheduler.untrack("early");
+        expiryScheduler.untrack("added");
+        expiryScheduler.untrack("kept");
+        assertEquals(0, expiryScheduler.getTrackedCount());
+    }
+
+    @Test
+    void tick_ShouldMarkOnlyMedicinesDueTodayAndEvictTheirTenants() {
+        // Start the wheel two days back so an item that expired yesterday comes due on this tick
+        ReflectionTestUtils.setField(expiryScheduler, "wheel", new TimingWheel<>(today.minusDays(2).toEpochDay()));
+        expiryScheduler.track(medicine("due", today.minusDays(1)));
+        expiryScheduler.track(medicine("later", today.plusDays(3)));
+        when(medicineRepository.markExpired(List.of("due"), today)).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(cacheManager.getCache("inventory")).thenReturn(inventoryCache);
+
+        expiryScheduler.tick();
+
+        verify(medicineRepository).markExpired(List.of("due"), today);
+        verify(inventoryCache).evict("admin1");
+        assertEquals(1, expiryScheduler.getTrackedCount());
+    }
+
+    @Test
+    void track_WhenMedicineExpiredOrUndated_ShouldStopTracking() {
+        Medicine medicine = medicine("m1", today.plusDays(5));
+        expiryScheduler.track(medicine);
+        assertEquals(1, expiryScheduler.getTrackedCount());
+
+        medicine.setExpired(true);
+        expiryScheduler.track(medicine);
+
+        assertEquals(0, expiryScheduler.getTrackedCount());
+        expiryScheduler.tick();
+        verify(medicineRepository, never()).markExpired(anyCollection(), any());
+    }
+
+    private Medicine medicine(String id, LocalDate expiryDate) {
+        Medicine medicine = new Medicine(id, "", 1.0, 10, expiryDate);
+        medicine.setId(id);
+        medicine.setAdminId("admin1");
+        return medicine;
+    }
+}
@@ -0,0 +1,165 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.DeliveryStatus;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.repository.SaleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceDispatcherTest {
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private SaleRepository saleRepository;
+
+    @Mock
+    private InvoiceRenderer invoiceRenderer;
+
+    @Mock
+    private InvoiceStore invoiceStore;
+
+    @InjectMocks
+    private InvoiceDispatcher invoiceDispatcher;
+
+    private static final byte[] PDF = { '%', 'P', 'D', 'F' };
+    private static final CompletableFuture<Void> SENT = CompletableFuture.completedFuture(null);
+
+    private Medicine medicine;
+    private Sale sale;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(invoiceDispatcher, "workers", 1);
+        ReflectionTestUtils.setField(invoiceDispatcher, "queueCapacity", 10);
+        ReflectionTestUtils.setField(invoiceDispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(invoiceDispatcher, "retryBackoffMs", 1L);
+        invoiceDispatcher.start();
+
+        medicine = new Medicine("Paracetamol", "Pain relief", 10.0, 100, null);
+        sale = new Sale("admin", "Paracetamol", 2, 10.0, 20.0, LocalDateTime.now());
+        sale.setId("sale1");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        invoiceDispatcher.stop();
+    }
+
+    @Test
+    void dispatch_WhenEmailSucceeds_ShouldMarkSaleSent() throws Exception {
+        givenBillRenders();
+        when(emailService.sendBillEmail("customer@example.com", medicine, PDF)).thenReturn(SENT);
+
+        invoiceDispatcher.dispatch(sale, "customer@example.com", medicine);
+
+        verify(saleRepository, timeout(1000)).updateDeliveryStatus(List.of("sale1"), DeliveryStatus.SENT, 1, null);
+        verify(emailService).sendBillEmail("customer@example.com", medicine, PDF);
+        assertEquals(1, invoiceDispatcher.getSentCount());
+    }
+
+    @Test
+    void dispatch_WhenEmailFailsOnce_ShouldRetryWithoutRenderingAgain() throws Exception {
+        givenBillRenders();
+        when(emailService.sendBillEmail(anyString(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("SMTP timeout")), SENT);
+
+        invoiceDispatcher.dispatch(sale, "customer@example.com", medicine);
+
+        verify(saleRepository, timeout(1000)).updateDeliveryStatus(List.of("sale1"), DeliveryStatus.SENT, 2, null);
+        verify(emailService, times(2)).sendBillEmail("customer@example.com", medicine, PDF);
+        verify(invoiceRenderer, times(1)).renderBillAsync(medicine, 2, 20.0);
+    }
+
+    @Test
+    void dispatch_WhenRenderFails_ShouldMarkSaleFailedWithoutEmailing() {
+        when(invoiceRenderer.renderBillAsync(medicine, 2, 20.0)).thenReturn(
+                CompletableFuture.failedFuture(new RejectedExecutionException("Invoice render queue is full")));
+
+        invoiceDispatcher.dispatch(sale, "customer@example.com", medicine);
+
+        verify(saleRepository, timeout(1000))
+                .updateDeliveryStatus(List.of("sale1"), DeliveryStatus.FAILED, 0, "Invoice render queue is full");
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void dispatch_WhenRetriesExhausted_ShouldMarkSaleFailed() throws Exception {
+        givenBillRenders();
+        when(emailService.sendBillEmail(anyString(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("SMTP down")));
+
+        invoiceDispatcher.dispatch(sale, "customer@example.com", medicine);
+
+        verify(saleRepository, timeout(1000))
+                .updateDeliveryStatus(List.of("sale1"), DeliveryStatus.FAILED, 3, "SMTP down");
+        assertEquals(1, invoiceDispatcher.getFailedCount());
+        assertEquals(0, invoiceDispatcher.getQueueDepth());
+    }
+
+    @Test
+    void dispatchCart_ShouldSendOneInvoiceForAllLines() throws Exception {
+        Sale second = new Sale("admin", "Ibuprofen", 1, 8.0, 8.0, LocalDateTime.now());
+        second.setId("sale2");
+        List<Sale> lines = List.of(sale, second);
+        when(invoiceRenderer.renderCartAsync(lines)).thenReturn(CompletableFuture.completedFuture(PDF));
+        when(emailService.sendCartBillEmail("customer@example.com", lines, PDF)).thenReturn(SENT);
+
+        invoiceDispatcher.dispatchCart(lines, "customer@example.com");
+
+        verify(saleRepository, timeout(1000))
+                .updateDeliveryStatus(List.of("sale1", "sale2"), DeliveryStatus.SENT, 1, null);
+        verify(emailService, times(1)).sendCartBillEmail("customer@example.com", lines, PDF);
+        verify(invoiceStore).put(List.of("sale1", "sale2"), PDF);
+    }
+
+    @Test
+    void dispatch_WhenStoreFails_ShouldStillEmail() throws Exception {
+        givenBillRenders();
+        when(invoiceStore.put(List.of("sale1"), PDF)).thenThrow(new java.io.IOException("disk full"));
+        when(emailService.sendBillEmail("customer@example.com", medicine, PDF)).thenReturn(SENT);
+
+        invoiceDispatcher.dispatch(sale, "customer@example.com", medicine);
+
+        verify(saleRepository, timeout(1000)).updateDeliveryStatus(List.of("sale1"), DeliveryStatus.SENT, 1, null);
+    }
+
+    @Test
+    void dispatch_ShouldStoreOnAWorkerThreadNotTheRenderThread() throws Exception {
+        givenBillRenders();
+        AtomicReference<String> storedOn = new AtomicReference<>();
+        when(invoiceStore.put(List.of("sale1"), PDF)).thenAnswer(invocation -> {
+            storedOn.set(Thread.currentThread().getName());
+            return null;
+        });
+        when(emailService.sendBillEmail("customer@example.com", medicine, PDF)).thenReturn(SENT);
+
+        invoiceDispatcher.dispatch(sale, "customer@example.com", medicine);
+
+        verify(saleRepository, timeout(1000)).updateDeliveryStatus(List.of("sale1"), DeliveryStatus.SENT, 1, null);
+        assertTrue(storedOn.get().startsWith("invoice-"), storedOn.get());
+    }
+
+    private void givenBillRenders() {
+        when(invoiceRenderer.renderBillAsync(medicine, 2, 20.0)).thenReturn(CompletableFuture.completedFuture(PDF));
+    }
+}
@@ -0,0 +1,132 @@
+package com.pharmacy.management.service;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceRendererTest {
+
+    private InvoiceRenderer invoiceRenderer;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        invoiceRenderer = new InvoiceRenderer();
+        ReflectionTestUtils.setField(invoiceRenderer, "renderThreads", 1);
+        ReflectionTestUtils.setField(invoiceRenderer, "renderQueueCapacity", 10);
+        ReflectionTestUtils.setField(invoiceRenderer, "bufferPoolSize", 2);
+        invoiceRenderer.start();
+        registry = new SimpleMeterRegistry();
+        invoiceRenderer.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        invoiceRenderer.stop();
+    }
+
+    @Test
+    void renderBill_ShouldWriteTemplateAndBillDetails() throws IOException {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, 100, null);
+
+        String text = pageText(invoiceRenderer.renderBill(medicine, 2, 20.0), 1);
+
+        assertTrue(text.startsWith(InvoiceRenderer.TITLE));
+        assertTrue(text.contains("Medicine Name: Paracetamol"));
+        assertTrue(text.contains("Quantity: 2"));
+        assertTrue(text.contains("Total Price: Rs. 20.00"));
+        assertTrue(text.contains(InvoiceRenderer.THANKS));
+    }
+
+    @Test
+    void renderCart_WhenLinesOverflowPage_ShouldContinueOnNextPage() throws IOException {
+        List<Sale> lines = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            lines.add(new Sale("admin", "Medicine " + i, 1, 2.5, 2.5, LocalDateTime.now()));
+        }
+
+        byte[] invoice = invoiceRenderer.renderCart(lines);
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(invoice)))) {
+            assertEquals(3, pdf.getNumberOfPages());
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getPage(1)).contains("Medicine 0 "));
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getLastPage()).contains("Total Price: Rs. 300.00"));
+        }
+    }
+
+    @Test
+    void wrap_ShouldKeepLongLinesInsideThePageWidth() throws IOException {
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        String description = "Description: " + "Film-coated tablets for short-term relief of pain ".repeat(6);
+        String token = "X".repeat(200);
+
+        List<String> lines = InvoiceRenderer.wrap(List.of("Quantity: 2", description, token), font, 300);
+
+        assertEquals("Quantity: 2", lines.get(0));
+        assertTrue(lines.size() > 4);
+        for (String line : lines) {
+            assertTrue(font.getWidth(line, 11) <= 300, line);
+        }
+        // Nothing is dropped, only split
+        assertEquals((description + token).replace(" ", ""),
+                String.join("", lines.subList(1, lines.size())).replace(" ", ""));
+    }
+
+    @Test
+    void renderBill_WithLongDescription_ShouldWrapInsteadOfRunningOffThePage() throws IOException {
+        Medicine medicine = new Medicine("Paracetamol", "Relief of mild to moderate pain ".repeat(8).trim(),
+                10.0, 100, null);
+
+        String text = pageText(invoiceRenderer.renderBill(medicine, 2, 20.0), 1);
+
+        assertTrue(text.contains("Description: Relief of mild to moderate pain"));
+        assertTrue(text.lines().filter(line -> line.contains("moderate pain")).count() > 1);
+    }
+
+    @Test
+    void renderBillAsync_ShouldRenderOnPoolAndRecordHistogram() throws Exception {
+        Medicine medicine = new Medicine("Ibuprofen", null, 8.0, 10, null);
+
+        byte[] invoice = invoiceRenderer.renderBillAsync(medicine, 1, 8.0).get(10, TimeUnit.SECONDS);
+
+        assertTrue(pageText(invoice, 1).contains("Medicine Name: Ibuprofen"));
+        assertEquals(1, registry.get("billing.invoice.render").tag("type", "bill").timer().count());
+        assertEquals(invoice.length, registry.get("billing.invoice.size").summary().totalAmount());
+    }
+
+    @Test
+    void render_ShouldReturnBufferToPoolForReuse() {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, 100, null);
+
+        invoiceRenderer.renderBill(medicine, 1, 10.0);
+        invoiceRenderer.renderBill(medicine, 1, 10.0);
+
+        assertEquals(1, invoiceRenderer.getIdleBuffers());
+    }
+
+    private String pageText(byte[] invoice, int page) throws IOException {
+        assertEquals("%PDF-", new String(invoice, 0, 5));
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(invoice)))) {
+            return PdfTextExtractor.getTextFromPage(pdf.getPage(page));
+        }
+    }
+}
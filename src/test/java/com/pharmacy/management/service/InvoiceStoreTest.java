@@ -0,0 +1,138 @@
+package com.pharmacy.management.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private InvoiceStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new InvoiceStore();
+        ReflectionTestUtils.setField(store, "storePath", dir.toString());
+        ReflectionTestUtils.setField(store, "compress", false);
+        ReflectionTestUtils.setField(store, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(store, "maxAgeDays", 30);
+        store.init();
+    }
+
+    @Test
+    void put_ShouldBeFoundUnderEverySaleIdOfTheBill() throws Exception {
+        byte[] pdf = pdf("cart");
+
+        InvoiceStore.StoredInvoice stored = store.put(List.of("sale1", "sale2"), pdf);
+
+        assertArrayEquals(pdf, Files.readAllBytes(stored.file()));
+        assertEquals(pdf.length, stored.size());
+        assertEquals(stored.file(), store.find("sale1").orElseThrow().file());
+        assertEquals(stored.hash(), store.find("sale2").orElseThrow().hash());
+        assertTrue(store.find("sale3").isEmpty());
+    }
+
+    @Test
+    void put_WithSamePdf_ShouldKeepOneBlob() throws Exception {
+        store.put(List.of("sale1"), pdf("same"));
+        store.put(List.of("sale2"), pdf("same"));
+
+        assertEquals(1, blobCount());
+        assertEquals(store.find("sale1").orElseThrow().file(), store.find("sale2").orElseThrow().file());
+    }
+
+    @Test
+    void put_WhenCompressing_ShouldStoreGzip() throws Exception {
+        ReflectionTestUtils.setField(store, "compress", true);
+        byte[] pdf = pdf("x".repeat(4096));
+
+        InvoiceStore.StoredInvoice stored = store.put(List.of("sale1"), pdf);
+
+        assertTrue(stored.compressed());
+        assertTrue(stored.file().toString().endsWith(".pdf.gz"));
+        assertTrue(stored.size() < pdf.length);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(stored.file()))) {
+            assertArrayEquals(pdf, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void put_WithInvalidSaleId_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> store.put(List.of("../../etc/passwd"), pdf("x")));
+    }
+
+    @Test
+    void evict_ShouldRemoveExpiredInvoicesAndTheirRefs() throws Exception {
+        InvoiceStore.StoredInvoice old = store.put(List.of("sale1"), pdf("old"));
+        store.put(List.of("sale2"), pdf("new"));
+        age(old, Duration.ofDays(31));
+
+        assertEquals(1, store.evict());
+
+        assertTrue(store.find("sale1").isEmpty());
+        assertTrue(store.find("sale2").isPresent());
+        assertEquals(1, refCount());
+    }
+
+    @Test
+    void evict_WhenOverSizeLimit_ShouldRemoveOldestFirst() throws Exception {
+        byte[] big = new byte[400 * 1024];
+        big[0] = 1;
+        InvoiceStore.StoredInvoice oldest = store.put(List.of("sale1"), big.clone());
+        big[0] = 2;
+        InvoiceStore.StoredInvoice middle = store.put(List.of("sale2"), big.clone());
+        big[0] = 3;
+        store.put(List.of("sale3"), big.clone());
+        age(oldest, Duration.ofHours(2));
+        age(middle, Duration.ofHours(1));
+
+        assertEquals(1, store.evict());
+
+        assertTrue(store.find("sale1").isEmpty());
+        assertTrue(store.find("sale2").isPresent());
+        assertTrue(store.find("sale3").isPresent());
+    }
+
+    @Test
+    void evict_WithinLimits_ShouldKeepEverything() throws Exception {
+        store.put(List.of("sale1"), pdf("a"));
+
+        assertEquals(0, store.evict());
+        assertTrue(store.find("sale1").isPresent());
+    }
+
+    private static byte[] pdf(String body) {
+        return ("%PDF-1.7 " + body).getBytes();
+    }
+
+    private static void age(InvoiceStore.StoredInvoice invoice, Duration age) throws Exception {
+        Files.setLastModifiedTime(invoice.file(), FileTime.from(Instant.now().minus(age)));
+    }
+
+    private long blobCount() throws Exception {
+        try (Stream<Path> files = Files.walk(dir.resolve("objects"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private long refCount() throws Exception {
+        try (Stream<Path> files = Files.walk(dir.resolve("refs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
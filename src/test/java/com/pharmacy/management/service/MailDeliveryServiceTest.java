@@ -0,0 +1,170 @@
+package com.pharmacy.management.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailDeliveryServiceTest {
+
+    private FakeSmtpServer smtp;
+    private JavaMailSenderImpl mailSender;
+    private MailDeliveryService mailDelivery;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getPort());
+
+        mailDelivery = new MailDeliveryService();
+        ReflectionTestUtils.setField(mailDelivery, "mailSender", mailSender);
+        ReflectionTestUtils.setField(mailDelivery, "connections", 1);
+        ReflectionTestUtils.setField(mailDelivery, "batchSize", 20);
+        ReflectionTestUtils.setField(mailDelivery, "queueCapacity", 100);
+        ReflectionTestUtils.setField(mailDelivery, "maxMessagesPerConnection", 100);
+        ReflectionTestUtils.setField(mailDelivery, "idleTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(mailDelivery, "throttleBackoffMs", 10L);
+        ReflectionTestUtils.setField(mailDelivery, "maxThrottleBackoffMs", 50L);
+        ReflectionTestUtils.setField(mailDelivery, "maxThrottleRetries", 3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailDelivery.stop();
+        smtp.close();
+    }
+
+    @Test
+    void send_ShouldReuseOneConnectionForManyMessages() throws Exception {
+        mailDelivery.start();
+
+        awaitAll(sendMany(10, "customer@example.com"));
+
+        assertEquals(10, smtp.messages.size());
+        assertEquals(1, smtp.connections.get());
+        assertEquals(1, mailDelivery.getConnectionsOpened());
+        assertEquals(10, mailDelivery.getSentCount());
+    }
+
+    @Test
+    void send_ShouldRecycleConnectionAfterMaxMessages() throws Exception {
+        ReflectionTestUtils.setField(mailDelivery, "maxMessagesPerConnection", 3);
+        mailDelivery.start();
+
+        awaitAll(sendMany(7, "customer@example.com"));
+
+        assertEquals(7, smtp.messages.size());
+        assertEquals(3, smtp.connections.get());
+    }
+
+    @Test
+    void send_WhenRelayThrottles_ShouldBackOffAndRedeliver() throws Exception {
+        smtp.throttleNext.set(2);
+        mailDelivery.start();
+
+        awaitAll(sendMany(5, "customer@example.com"));
+
+        assertEquals(5, smtp.messages.size());
+        assertEquals(2, mailDelivery.getThrottledCount());
+        assertEquals(0, mailDelivery.getFailedCount());
+        assertEquals(0, mailDelivery.getCurrentBackoffMs());
+    }
+
+    @Test
+    void send_WhenThrottledPastRetries_ShouldFailMessage() throws Exception {
+        smtp.throttleNext.set(100);
+        mailDelivery.start();
+
+        CompletableFuture<Void> result = mailDelivery.send(message("customer@example.com"));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertEquals(421, MailDeliveryService.replyCode((Exception) failure.getCause()));
+        assertEquals(1, mailDelivery.getFailedCount());
+        assertEquals(4, mailDelivery.getThrottledCount());
+    }
+
+    @Test
+    void send_WhenRecipientRejected_ShouldFailOnlyThatMessage() throws Exception {
+        mailDelivery.start();
+
+        CompletableFuture<Void> good = mailDelivery.send(message("first@example.com"));
+        CompletableFuture<Void> bad = mailDelivery.send(message("reject@example.com"));
+        CompletableFuture<Void> after = mailDelivery.send(message("second@example.com"));
+
+        good.get(10, TimeUnit.SECONDS);
+        after.get(10, TimeUnit.SECONDS);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(10, TimeUnit.SECONDS));
+        assertEquals(550, MailDeliveryService.replyCode((Exception) failure.getCause()));
+        assertEquals(2, smtp.messages.size());
+        assertEquals(1, smtp.connections.get());
+    }
+
+    @Test
+    void send_WhenMessageThrowsUnchecked_ShouldFailItAndKeepWorking() throws Exception {
+        mailDelivery.start();
+        MimeMessage broken = new MimeMessage(mailSender.getSession()) {
+            @Override
+            public void saveChanges() {
+                throw new IllegalStateException("broken message");
+            }
+        };
+
+        CompletableFuture<Void> bad = mailDelivery.send(broken);
+        List<CompletableFuture<Void>> after = sendMany(3, "customer@example.com");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        awaitAll(after);
+        assertEquals(3, smtp.messages.size());
+        assertEquals(1, mailDelivery.getFailedCount());
+    }
+
+    @Test
+    void send_WhenQueueFull_ShouldRejectImmediately() throws Exception {
+        ReflectionTestUtils.setField(mailDelivery, "queueCapacity", 1);
+        ReflectionTestUtils.setField(mailDelivery, "connections", 0);
+        mailDelivery.start();
+
+        mailDelivery.send(message("first@example.com"));
+        CompletableFuture<Void> overflow = mailDelivery.send(message("second@example.com"));
+
+        assertTrue(overflow.isCompletedExceptionally());
+        assertEquals(1, mailDelivery.getFailedCount());
+    }
+
+    private List<CompletableFuture<Void>> sendMany(int count, String to) throws MessagingException {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(mailDelivery.send(message(to)));
+        }
+        return results;
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom(new InternetAddress("pharmacy@example.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("Your Pharmacy Bill");
+        message.setText("Thank you");
+        return message;
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> results) throws Exception {
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+}
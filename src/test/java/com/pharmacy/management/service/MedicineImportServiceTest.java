@@ -0,0 +1,207 @@
+package com.pharmacy.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.pharmacy.management.config.CacheConfig;
+import com.pharmacy.management.dto.ImportReport;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedicineImportServiceTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private MedicineSearchIndex medicineSearchIndex;
+
+    @Mock
+    private ExpiryScheduler expiryScheduler;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache inventoryCache;
+
+    @InjectMocks
+    private MedicineImportService importService;
+
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "maxErrors", 10);
+        lenient().when(medicineRepository.hasUniqueNameIndex()).thenReturn(true);
+    }
+
+    private void givenBulkWritesSucceed() {
+        when(medicineRepository.upsertByName(eq("admin"), anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Medicine> batch = invocation.getArgument(1);
+            batches.add(batch.stream().map(Medicine::getName).toList());
+            BulkWriteResult result = mock(BulkWriteResult.class);
+            when(result.getUpserts()).thenReturn(Collections.emptyList());
+            when(result.getMatchedCount()).thenReturn(batch.size());
+            return result;
+        });
+    }
+
+    @Test
+    void importCsv_ShouldUpsertValidRowsInBatchesAndReportBadOnes() throws IOException {
+        givenBulkWritesSucceed();
+        String csv = """
+                name,price,quantity,expiryDate,description
+                Paracetamol,10.5,100,2027-01-31,Pain relief
+                "Cough Syrup, 100ml",55,20,,"Says ""shake well""
+                before use"
+                Ibuprofen,abc,5,,
+                ,3,1,,
+                Zinc,2,-1,,
+                Aspirin,4,10,2027-13-01,
+                Cetirizine,3,30,,
+                """;
+
+        ImportReport report = importService.importMedicines("admin", MedicineImportService.Format.CSV, stream(csv));
+
+        assertEquals(7, report.getReceived());
+        assertEquals(3, report.getUpdated());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(List.of("Paracetamol", "Cough Syrup, 100ml"), List.of("Cetirizine")), batches);
+        assertEquals(List.of(5L, 6L, 7L, 8L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+        assertEquals("Invalid price: abc", report.getErrors().get(0).message());
+        assertEquals("Medicine name is required", report.getErrors().get(1).message());
+        assertEquals("Quantity must be non-negative", report.getErrors().get(2).message());
+        verify(medicineSearchIndex).invalidate("admin");
+    }
+
+    @Test
+    void importCsv_ShouldKeepQuotedLineBreaksAndParseTypes() throws IOException {
+        givenBulkWritesSucceed();
+        String csv = "name,description,price,quantity,expiryDate\n"
+                + "Syrup,\"line one\nline two\",55,20,2027-02-28\n";
+        ArgumentCaptor<Collection<Medicine>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        importService.importMedicines("admin", MedicineImportService.Format.CSV, stream(csv));
+
+        verify(medicineRepository).upsertByName(eq("admin"), captor.capture(), eq(LocalDate.now()));
+        Medicine imported = captor.getValue().iterator().next();
+        assertEquals("line one\nline two", imported.getDescription());
+        assertEquals(55.0, imported.getPrice());
+        assertEquals(20, imported.getQuantity());
+        assertEquals(LocalDate.of(2027, 2, 28), imported.getExpiryDate());
+    }
+
+    @Test
+    void importCsv_WithoutRequiredColumns_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importMedicines("admin",
+                MedicineImportService.Format.CSV, stream("name,description\nParacetamol,x\n")));
+        verify(medicineRepository, never()).upsertByName(any(), any(), any());
+    }
+
+    @Test
+    void importNdjson_ShouldFlushBeforeARepeatedName() throws IOException {
+        givenBulkWritesSucceed();
+        String ndjson = """
+                {"name":"Paracetamol","price":10,"quantity":5}
+                {"name":"Paracetamol","price":11,"quantity":7}
+                not json
+
+                {"name":"Ibuprofen","price":8,"quantity":3,"expiryDate":"2027-01-01"}
+                """;
+
+        ImportReport report = importService.importMedicines("admin", MedicineImportService.Format.NDJSON,
+                stream(ndjson));
+
+        assertEquals(4, report.getReceived());
+        assertEquals(1, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).line());
+        assertEquals(List.of(List.of("Paracetamol"), List.of("Paracetamol", "Ibuprofen")), batches);
+    }
+
+    @Test
+    void import_ShouldCapListedErrors() throws IOException {
+        ReflectionTestUtils.setField(importService, "maxErrors", 1);
+
+        ImportReport report = importService.importMedicines("admin", MedicineImportService.Format.NDJSON,
+                stream("{}\n{}\n{}\n"));
+
+        assertEquals(3, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+        verify(medicineSearchIndex, never()).invalidate(any());
+    }
+
+    @Test
+    void import_WhenStreamFailsAfterABatch_ShouldStillEvictInventoryCache() throws IOException {
+        givenBulkWritesSucceed();
+        when(cacheManager.getCache(CacheConfig.INVENTORY)).thenReturn(inventoryCache);
+        InputStream failing = new SequenceInputStream(
+                stream("{\"name\":\"A\",\"price\":1,\"quantity\":1}\n"
+                        + "{\"name\":\"B\",\"price\":1,\"quantity\":1}\n"
+                        + "{\"name\":\"C\",\"price\":1,\"quantity\":1}\n"),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("connection reset");
+                    }
+                });
+
+        assertThrows(IOException.class,
+                () -> importService.importMedicines("admin", MedicineImportService.Format.NDJSON, failing));
+
+        assertEquals(List.of(List.of("A", "B")), batches);
+        verify(inventoryCache).evict("admin");
+        verify(medicineSearchIndex).invalidate("admin");
+    }
+
+    @Test
+    void import_WithoutUniqueNameIndex_ShouldRefuseToRun() {
+        when(medicineRepository.hasUniqueNameIndex()).thenReturn(false);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> importService.importMedicines(
+                "admin", MedicineImportService.Format.NDJSON, stream("{\"name\":\"A\",\"price\":1,\"quantity\":1}\n")));
+
+        assertTrue(e.getMessage().contains("admin_name"));
+        verify(medicineRepository, never()).upsertByName(any(), any(), any());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,127 @@
+package com.pharmacy.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedicineSearchIndexTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @InjectMocks
+    private MedicineSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "maxTenants", 500L);
+        ReflectionTestUtils.setField(searchIndex, "idleTtlMs", 3_600_000L);
+        searchIndex.init();
+        when(medicineRepository.findByAdminId("admin")).thenReturn(Arrays.asList(
+                medicine("m1", "Paracetamol 500mg", "Pain relief and fever"),
+                medicine("m2", "Paracetamol Syrup", "Fever in children"),
+                medicine("m3", "Ibuprofen", "Pain relief, anti-inflammatory"),
+                medicine("m4", "Para", null)));
+    }
+
+    @Test
+    void search_ShouldRankExactNameThenShorterPrefixMatches() {
+        assertEquals(List.of("m4", "m1", "m2"), searchIndex.search("admin", "para", 10));
+    }
+
+    @Test
+    void search_ShouldRequireEveryQueryToken() {
+        assertEquals(List.of("m2"), searchIndex.search("admin", "paracetamol syr", 10));
+        assertEquals(List.of("m1", "m2"), searchIndex.search("admin", "fever para", 10));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        assertEquals(List.of("m3"), searchIndex.search("admin", "ibuprofin", 10));
+        assertEquals(2, searchIndex.search("admin", "paracetmol", 10).size());
+    }
+
+    @Test
+    void search_ShouldMatchDescriptionsBelowNames() {
+        assertEquals(List.of("m3", "m1"), searchIndex.search("admin", "pain", 10));
+    }
+
+    @Test
+    void search_ShouldKeepOnlyTopK() {
+        assertEquals(List.of("m4"), searchIndex.search("admin", "para", 1));
+    }
+
+    @Test
+    void search_ShouldBuildTenantIndexOnce() {
+        searchIndex.search("admin", "para", 10);
+        searchIndex.search("admin", "ibu", 10);
+
+        verify(medicineRepository, times(1)).findByAdminId("admin");
+        assertEquals(4, searchIndex.getIndexedCount("admin"));
+    }
+
+    @Test
+    void put_ShouldReindexRenamedMedicine() {
+        searchIndex.search("admin", "para", 10);
+
+        searchIndex.put(medicine("m4", "Aspirin", "Pain"));
+
+        assertEquals(List.of("m1", "m2"), searchIndex.search("admin", "para", 10));
+        assertEquals(List.of("m4"), searchIndex.search("admin", "asp", 10));
+    }
+
+    @Test
+    void remove_ShouldDropMedicineFromResults() {
+        searchIndex.search("admin", "para", 10);
+
+        searchIndex.remove("admin", "m2");
+
+        assertTrue(searchIndex.search("admin", "syrup", 10).isEmpty());
+        assertEquals(3, searchIndex.getIndexedCount("admin"));
+    }
+
+    @Test
+    void invalidate_ShouldRebuildOnNextSearch() {
+        searchIndex.search("admin", "para", 10);
+
+        searchIndex.invalidate("admin");
+        searchIndex.search("admin", "para", 10);
+
+        verify(medicineRepository, times(2)).findByAdminId("admin");
+    }
+
+    @Test
+    void search_ShouldKeepAtMostMaxTenantIndexes() {
+        ReflectionTestUtils.setField(searchIndex, "maxTenants", 1L);
+        searchIndex.init();
+        when(medicineRepository.findByAdminId("other")).thenReturn(List.of());
+
+        searchIndex.search("admin", "para", 10);
+        searchIndex.search("other", "para", 10);
+
+        Cache<?, ?> tenants = (Cache<?, ?>) ReflectionTestUtils.getField(searchIndex, "tenants");
+        tenants.cleanUp();
+        assertEquals(1, tenants.estimatedSize());
+    }
+
+    private Medicine medicine(String id, String name, String description) {
+        Medicine medicine = new Medicine(name, description, 10.0, 5, null);
+        medicine.setId(id);
+        medicine.setAdminId("admin");
+        return medicine;
+    }
+}
@@ -0,0 +1,76 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.config.CacheConfig;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.repository.MedicineRepository;
+import com.pharmacy.management.repository.SaleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(MedicineServiceCacheTest.Config.class)
+class MedicineServiceCacheTest {
+
+    @Configuration
+    @Import({ CacheConfig.class, MedicineService.class })
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.INVENTORY);
+        }
+    }
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @MockBean
+    private MedicineRepository medicineRepository;
+
+    @MockBean
+    private SaleRepository saleRepository;
+
+    @MockBean
+    private InvoiceDispatcher invoiceDispatcher;
+
+    @MockBean
+    private SalesSummaryService salesSummaryService;
+
+    @MockBean
+    private ExpiryScheduler expiryScheduler;
+
+    @MockBean
+    private MedicineSearchIndex medicineSearchIndex;
+
+    @Test
+    void getAllMedicines_ShouldHitMongoOncePerTenantUntilAWriteEvicts() {
+        Medicine medicine = new Medicine("Paracetamol", "Pain relief", 10.0, 100, null);
+        medicine.setId("med1");
+        medicine.setAdminId("admin1");
+        when(medicineRepository.findByAdminId("admin1")).thenReturn(List.of(medicine));
+        when(medicineRepository.findByAdminId("admin2")).thenReturn(List.of());
+        when(medicineRepository.decrementStock("med1", "admin1", 1)).thenReturn(Optional.of(medicine));
+
+        medicineService.getAllMedicines("admin1");
+        medicineService.getAllMedicines("admin1");
+        medicineService.getAllMedicines("admin2");
+        verify(medicineRepository, times(1)).findByAdminId("admin1");
+
+        medicineService.sellMedicine("med1", 1, "admin1");
+        assertEquals(1, medicineService.getAllMedicines("admin1").size());
+
+        verify(medicineRepository, times(2)).findByAdminId("admin1");
+        verify(medicineRepository, times(1)).findByAdminId("admin2");
+    }
+}
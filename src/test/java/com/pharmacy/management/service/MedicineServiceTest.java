@@ -1,11 +1,22 @@
 package com.pharmacy.management.service;
 
 import com.pharmacy.management.dto.BillingRequest;
+import com.pharmacy.management.dto.CartBillingRequest;
+import com.pharmacy.management.dto.CartItem;
+import com.pharmacy.management.dto.ColumnarPage;
+import com.pharmacy.management.dto.MedicineFilter;
+import com.pharmacy.management.dto.BulkPatchResult;
+import com.pharmacy.management.dto.MedicineListing;
+import com.pharmacy.management.dto.MedicinePatch;
+import com.pharmacy.management.dto.MedicineRow;
+import com.pharmacy.management.exception.ConcurrentUpdateException;
 import com.pharmacy.management.exception.InsufficientStockException;
 import com.pharmacy.management.exception.MedicineNotFoundException;
 import com.pharmacy.management.model.Medicine;
 import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.StockStatus;
 import com.pharmacy.management.repository.MedicineRepository;
+import com.pharmacy.management.repository.MedicineRepositoryCustom.StatusCounts;
 import com.pharmacy.management.repository.SaleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,9 +24,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,7 +48,16 @@ public class MedicineServiceTest {
     private SaleRepository saleRepository;
 
     @Mock
-    private EmailService emailService;
+    private InvoiceDispatcher invoiceDispatcher;
+
+    @Mock
+    private SalesSummaryService salesSummaryService;
+
+    @Mock
+    private ExpiryScheduler expiryScheduler;
+
+    @Mock
+    private MedicineSearchIndex medicineSearchIndex;
 
     @InjectMocks
     private MedicineService medicineService;
@@ -87,30 +112,40 @@ public class MedicineServiceTest {
         assertNotNull(result);
         assertEquals(adminId, result.getAdminId());
         verify(medicineRepository, times(1)).save(any(Medicine.class));
+        verify(expiryScheduler).track(medicine);
     }
 
     @Test
     void sellMedicine_WhenStockAvailable_ShouldReduceQuantity() {
-        when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
-        when(medicineRepository.save(any(Medicine.class))).thenReturn(medicine);
-
         int sellQty = 10;
         int expectedQty = medicine.getQuantity() - sellQty;
+        medicine.setQuantity(expectedQty);
+        when(medicineRepository.decrementStock("med1", adminId, sellQty)).thenReturn(Optional.of(medicine));
 
         Medicine result = medicineService.sellMedicine("med1", sellQty, adminId);
 
         assertEquals(expectedQty, result.getQuantity());
-        verify(medicineRepository, times(1)).save(medicine);
+        verify(medicineRepository, never()).findByIdAndAdminId(anyString(), anyString());
+        verify(medicineRepository, never()).save(any());
     }
 
     @Test
     void sellMedicine_WhenInsufficientStock_ShouldThrowInsufficientStockException() {
+        when(medicineRepository.decrementStock("med1", adminId, 150)).thenReturn(Optional.empty());
         when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
 
         assertThrows(InsufficientStockException.class, () -> medicineService.sellMedicine("med1", 150, adminId));
         verify(medicineRepository, never()).save(any());
     }
 
+    @Test
+    void sellMedicine_WhenNotExists_ShouldThrowMedicineNotFoundException() {
+        when(medicineRepository.decrementStock("med1", adminId, 5)).thenReturn(Optional.empty());
+        when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.empty());
+
+        assertThrows(MedicineNotFoundException.class, () -> medicineService.sellMedicine("med1", 5, adminId));
+    }
+
     @Test
     void sellMedicine_WhenQuantityIsZero_ShouldThrowIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> medicineService.sellMedicine("med1", 0, adminId));
@@ -118,7 +153,7 @@ public class MedicineServiceTest {
     }
 
     @Test
-    void processBilling_ShouldSendEmailAndRecordSale() throws Exception {
+    void processBilling_ShouldRecordSaleAndQueueInvoice() {
         BillingRequest request = new BillingRequest();
         request.setMedicineName("Paracetamol");
         int sellQty = 5;
@@ -128,16 +163,21 @@ public class MedicineServiceTest {
         double expectedTotal = medicine.getPrice() * sellQty;
         int expectedNewQty = medicine.getQuantity() - sellQty;
 
-        when(medicineRepository.findByNameAndAdminId("Paracetamol", adminId)).thenReturn(Optional.of(medicine));
-        when(medicineRepository.save(any(Medicine.class))).thenReturn(medicine);
+        medicine.setQuantity(expectedNewQty);
+        when(medicineRepository.decrementStockByName("Paracetamol", adminId, sellQty))
+                .thenReturn(Optional.of(medicine));
+        when(saleRepository.save(any(Sale.class))).thenAnswer(inv -> inv.getArgument(0));
+        savesThroughSalesSummary();
 
         medicineService.processBilling(request, adminId);
 
-        assertEquals(expectedNewQty, medicine.getQuantity());
-        verify(emailService, times(1)).sendBillEmail(eq("customer@example.com"), eq(medicine), eq(sellQty),
-                eq(expectedTotal));
-        verify(saleRepository, times(1)).save(any(Sale.class));
-        verify(medicineRepository, times(1)).save(medicine);
+        org.mockito.ArgumentCaptor<Sale> saleCaptor = org.mockito.ArgumentCaptor.forClass(Sale.class);
+        verify(saleRepository, times(1)).save(saleCaptor.capture());
+        assertEquals(expectedTotal, saleCaptor.getValue().getTotalPrice());
+        assertEquals(com.pharmacy.management.model.DeliveryStatus.PENDING, saleCaptor.getValue().getDeliveryStatus());
+        verify(medicineRepository, never()).deleteIfOutOfStock(anyString());
+        verify(salesSummaryService).saveAndRecord(eq(adminId), any());
+        verify(invoiceDispatcher, times(1)).dispatch(saleCaptor.getValue(), "customer@example.com", medicine);
     }
 
     @Test
@@ -156,6 +196,7 @@ public class MedicineServiceTest {
     @Test
     void sellMedicine_WhenExpired_ShouldThrowIllegalStateException() {
         medicine.setExpired(true);
+        when(medicineRepository.decrementStock("med1", adminId, 10)).thenReturn(Optional.empty());
         when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
 
         assertThrows(IllegalStateException.class, () -> medicineService.sellMedicine("med1", 10, adminId));
@@ -163,7 +204,8 @@ public class MedicineServiceTest {
 
     @Test
     void sellMedicine_WhenDateBeforeToday_ShouldThrowIllegalStateException() {
-        medicine.setExpiryDate(java.time.LocalDate.now().minusDays(1).toString());
+        medicine.setExpiryDate(java.time.LocalDate.now().minusDays(1));
+        when(medicineRepository.decrementStock("med1", adminId, 10)).thenReturn(Optional.empty());
         when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
 
         assertThrows(IllegalStateException.class, () -> medicineService.sellMedicine("med1", 10, adminId));
@@ -185,6 +227,37 @@ public class MedicineServiceTest {
         verify(medicineRepository).save(medicine);
     }
 
+    @Test
+    void updateMedicine_WhenSaveConflicts_ShouldNotRetryStaleQuantity() {
+        Medicine details = new Medicine();
+        details.setName("New Name");
+        details.setQuantity(50);
+        when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
+        when(medicineRepository.save(any(Medicine.class))).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertThrows(ConcurrentUpdateException.class,
+                () -> medicineService.updateMedicine("med1", details, adminId));
+
+        verify(medicineRepository, times(1)).findByIdAndAdminId("med1", adminId);
+        verify(medicineRepository, times(1)).save(medicine);
+        verify(medicineSearchIndex, never()).put(any());
+    }
+
+    @Test
+    void updateMedicine_WhenClientVersionIsStale_ShouldNotOverwrite() {
+        medicine.setVersion(7L);
+        Medicine details = new Medicine();
+        details.setName("New Name");
+        details.setVersion(6L);
+        when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
+
+        assertThrows(ConcurrentUpdateException.class,
+                () -> medicineService.updateMedicine("med1", details, adminId));
+
+        assertEquals("Paracetamol", medicine.getName());
+        verify(medicineRepository, never()).save(any());
+    }
+
     @Test
     void deleteMedicine_WhenExists_ShouldDelete() {
         when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
@@ -192,20 +265,32 @@ public class MedicineServiceTest {
         medicineService.deleteMedicine("med1", adminId);
 
         verify(medicineRepository).delete(medicine);
+        verify(expiryScheduler).untrack("med1");
+        verify(medicineSearchIndex).remove(adminId, "med1");
     }
 
     @Test
-    void processBilling_WhenEmailFails_ShouldThrowRuntimeException() throws Exception {
+    void processBilling_ShouldCommitStockBeforeQueueingInvoice() {
         BillingRequest request = new BillingRequest();
         request.setMedicineName("Paracetamol");
         request.setQuantity(5);
-        request.setUserEmail("error@example.com");
+        request.setUserEmail("customer@example.com");
 
-        when(medicineRepository.findByNameAndAdminId("Paracetamol", adminId)).thenReturn(Optional.of(medicine));
-        doThrow(new RuntimeException("Email error")).when(emailService).sendBillEmail(anyString(), any(), anyInt(),
-                anyDouble());
+        medicine.setQuantity(0);
+        when(medicineRepository.decrementStockByName("Paracetamol", adminId, 5)).thenReturn(Optional.of(medicine));
+        when(medicineRepository.deleteIfOutOfStock("med1")).thenReturn(true);
+        when(saleRepository.save(any(Sale.class))).thenAnswer(inv -> inv.getArgument(0));
+        savesThroughSalesSummary();
+
+        medicineService.processBilling(request, adminId);
 
-        assertThrows(RuntimeException.class, () -> medicineService.processBilling(request, adminId));
+        verify(expiryScheduler).untrack("med1");
+        verify(medicineSearchIndex).remove(adminId, "med1");
+        org.mockito.InOrder inOrder = inOrder(medicineRepository, saleRepository, invoiceDispatcher);
+        inOrder.verify(medicineRepository).decrementStockByName("Paracetamol", adminId, 5);
+        inOrder.verify(medicineRepository).deleteIfOutOfStock("med1");
+        inOrder.verify(saleRepository).save(any(Sale.class));
+        inOrder.verify(invoiceDispatcher).dispatch(any(Sale.class), eq("customer@example.com"), eq(medicine));
     }
 
     @Test
@@ -215,8 +300,272 @@ public class MedicineServiceTest {
         request.setMedicineName("Paracetamol");
         request.setQuantity(5);
 
+        when(medicineRepository.decrementStockByName("Paracetamol", adminId, 5)).thenReturn(Optional.empty());
         when(medicineRepository.findByNameAndAdminId("Paracetamol", adminId)).thenReturn(Optional.of(medicine));
 
         assertThrows(IllegalStateException.class, () -> medicineService.processBilling(request, adminId));
     }
+
+    @Test
+    void processCartBilling_ShouldBulkDecrementAndSendOneInvoice() {
+        Medicine ibuprofen = new Medicine("Ibuprofen", "Anti-inflammatory", 8.0, 20, null);
+        ibuprofen.setId("med2");
+        CartBillingRequest request = new CartBillingRequest();
+        request.setUserEmail("customer@example.com");
+        request.setItems(Arrays.asList(new CartItem("Paracetamol", 2), new CartItem("Ibuprofen", 20),
+                new CartItem("Paracetamol", 3)));
+
+        when(medicineRepository.findByAdminIdAndNameIn(eq(adminId), any()))
+                .thenReturn(Arrays.asList(medicine, ibuprofen));
+        when(medicineRepository.decrementStockBulk(eq(adminId), anyString(), any())).thenReturn(true);
+        when(medicineRepository.deleteIfOutOfStock(List.of("med2"))).thenReturn(1L);
+        when(medicineRepository.findAllById(List.of("med2"))).thenReturn(List.of());
+        when(saleRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        savesThroughSalesSummary();
+
+        List<Sale> sales = medicineService.processCartBilling(request, adminId);
+
+        assertEquals(2, sales.size());
+        assertEquals(5, sales.get(0).getQuantity());
+        assertEquals(50.0, sales.get(0).getTotalPrice());
+        assertEquals(160.0, sales.get(1).getTotalPrice());
+        assertEquals(sales.get(0).getBillId(), sales.get(1).getBillId());
+        verify(medicineRepository).decrementStockBulk(eq(adminId), eq(sales.get(0).getBillId()),
+                eq(java.util.Map.of("med1", 5, "med2", 20)));
+        verify(medicineRepository).deleteIfOutOfStock(List.of("med2"));
+        verify(expiryScheduler).untrack("med2");
+        verify(expiryScheduler, never()).untrack("med1");
+        verify(saleRepository, times(1)).saveAll(anyList());
+        verify(salesSummaryService).saveAndRecord(eq(adminId), any());
+        verify(invoiceDispatcher, times(1)).dispatchCart(sales, "customer@example.com");
+    }
+
+    @Test
+    void processCartBilling_WhenOneLineMissing_ShouldRejectWholeCart() {
+        CartBillingRequest request = new CartBillingRequest();
+        request.setUserEmail("customer@example.com");
+        request.setItems(Arrays.asList(new CartItem("Paracetamol", 2), new CartItem("Unknown", 1)));
+
+        when(medicineRepository.findByAdminIdAndNameIn(eq(adminId), any())).thenReturn(Arrays.asList(medicine));
+
+        assertThrows(MedicineNotFoundException.class, () -> medicineService.processCartBilling(request, adminId));
+        verify(medicineRepository, never()).decrementStockBulk(anyString(), anyString(), any());
+        verify(saleRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void processCartBilling_WhenStockChangesConcurrently_ShouldNotRecordSales() {
+        CartBillingRequest request = new CartBillingRequest();
+        request.setUserEmail("customer@example.com");
+        request.setItems(Arrays.asList(new CartItem("Paracetamol", 2)));
+
+        when(medicineRepository.findByAdminIdAndNameIn(eq(adminId), any())).thenReturn(Arrays.asList(medicine));
+        when(medicineRepository.decrementStockBulk(eq(adminId), anyString(), any())).thenReturn(false);
+
+        assertThrows(InsufficientStockException.class, () -> medicineService.processCartBilling(request, adminId));
+        verify(saleRepository, never()).saveAll(anyList());
+        verifyNoInteractions(invoiceDispatcher);
+    }
+
+    @Test
+    void getMedicinePage_ShouldSeekFromCursor() {
+        Medicine next = new Medicine("Zinc", "Supplement", 3.0, 40, null);
+        next.setId("med9");
+        when(medicineRepository.findPageAfter(adminId, null, null, 2))
+                .thenReturn(new java.util.ArrayList<>(Arrays.asList(medicine, next)));
+
+        com.pharmacy.management.dto.CursorPage<Medicine> first = medicineService.getMedicinePage(adminId, null, 1,
+                false);
+
+        assertEquals(1, first.getContent().size());
+        assertTrue(first.isHasNext());
+
+        when(medicineRepository.findPageAfter(adminId, "Paracetamol", "med1", 2)).thenReturn(Arrays.asList(next));
+
+        com.pharmacy.management.dto.CursorPage<Medicine> second = medicineService.getMedicinePage(adminId,
+                first.getNextCursor(), 1, false);
+
+        assertEquals("Zinc", second.getContent().get(0).getName());
+        assertFalse(second.isHasNext());
+        verify(medicineRepository, never()).countByAdminId(anyString());
+    }
+
+    @Test
+    void getExpiringWithin_ShouldQueryFromTodayToHorizon() {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        when(medicineRepository.findExpiringBetween(adminId, today, today.plusDays(30)))
+                .thenReturn(Arrays.asList(medicine));
+
+        assertEquals(1, medicineService.getExpiringWithin(adminId, 30).size());
+    }
+
+    @Test
+    void getExpiringWithin_WhenNegativeDays_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> medicineService.getExpiringWithin(adminId, -1));
+        verifyNoInteractions(medicineRepository);
+    }
+
+    @Test
+    void searchMedicines_ShouldReturnDocumentsInRankOrder() {
+        Medicine syrup = new Medicine();
+        syrup.setId("med2");
+        syrup.setName("Paracetamol Syrup");
+        syrup.setAdminId(adminId);
+        when(medicineSearchIndex.search(adminId, "para", 10)).thenReturn(List.of("med2", "med1"));
+        when(medicineRepository.findAllById(List.of("med2", "med1"))).thenReturn(List.of(medicine, syrup));
+
+        List<Medicine> result = medicineService.searchMedicines(adminId, "para", 10);
+
+        assertEquals(List.of("med2", "med1"), result.stream().map(Medicine::getId).toList());
+    }
+
+    @Test
+    void searchMedicines_ShouldCapLimitAndSkipLookupWhenNothingMatches() {
+        when(medicineSearchIndex.search(adminId, "zzz", 50)).thenReturn(List.of());
+
+        assertTrue(medicineService.searchMedicines(adminId, "zzz", 1000).isEmpty());
+        verifyNoInteractions(medicineRepository);
+    }
+
+    @Test
+    void searchMedicines_WhenQueryBlank_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> medicineService.searchMedicines(adminId, " ", 10));
+    }
+
+    @Test
+    void getFilteredMedicines_ShouldPageSortAndTakeTotalFromStatusCount() {
+        MedicineFilter filter = new MedicineFilter(StockStatus.LOW_STOCK, null, null, null);
+        Map<StockStatus, Long> byStatus = new EnumMap<>(StockStatus.class);
+        byStatus.put(StockStatus.LOW_STOCK, 12L);
+        PageRequest expectedPage = PageRequest.of(1, 5,
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by("_id")));
+        when(medicineRepository.findFiltered(eq(adminId), eq(filter), any(), eq(expectedPage)))
+                .thenReturn(List.of(medicine));
+        when(medicineRepository.countByStatus(eq(adminId), eq(filter), any()))
+                .thenReturn(new StatusCounts(40, byStatus));
+
+        MedicineListing listing = medicineService.getFilteredMedicines(adminId, filter, "price", "desc", 1, 5);
+
+        assertEquals(12, listing.getTotalElements());
+        assertEquals(3, listing.getTotalPages());
+        assertEquals(40, listing.getAllCount());
+        assertEquals(1, listing.getContent().size());
+    }
+
+    @Test
+    void getFilteredMedicines_WhenSortFieldUnknown_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> medicineService.getFilteredMedicines(adminId,
+                new MedicineFilter(), "adminId", "asc", 0, 10));
+        verifyNoInteractions(medicineRepository);
+    }
+
+    @Test
+    void getFilteredMedicines_WhenPriceRangeInverted_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> medicineService.getFilteredMedicines(adminId,
+                new MedicineFilter(null, 20.0, 10.0, null), "name", "asc", 0, 10));
+    }
+
+    @Test
+    void getMedicineRows_ShouldReturnColumnsWithNullNumbersAsZero() {
+        java.time.LocalDate expiry = java.time.LocalDate.of(2027, 1, 31);
+        when(medicineRepository.findRowsAfter(adminId, null, null, 21)).thenReturn(List.of(
+                new MedicineRow("med1", "Paracetamol", 10.0, 100, expiry, false),
+                new MedicineRow("med2", "Zinc", null, null, null, true)));
+
+        ColumnarPage page = medicineService.getMedicineRows(adminId, null, 20);
+
+        assertEquals(2, page.getCount());
+        assertFalse(page.isHasNext());
+        assertArrayEquals(new double[] { 10.0, 0 }, (double[]) page.getColumns().get("price"));
+        assertArrayEquals(new int[] { 100, 0 }, (int[]) page.getColumns().get("quantity"));
+        assertArrayEquals(new java.time.LocalDate[] { expiry, null },
+                (java.time.LocalDate[]) page.getColumns().get("expiryDate"));
+        assertArrayEquals(new boolean[] { false, true }, (boolean[]) page.getColumns().get("expired"));
+    }
+
+    @Test
+    void patchMedicine_ShouldWriteOnceAndRefreshTrackers() {
+        MedicinePatch patch = new MedicinePatch();
+        patch.setPrice(12.0);
+        when(medicineRepository.patch(eq("med1"), eq(adminId), eq(patch), any())).thenReturn(Optional.of(medicine));
+
+        assertSame(medicine, medicineService.patchMedicine("med1", patch, adminId));
+        verify(medicineRepository, never()).save(any());
+        verify(expiryScheduler).track(medicine);
+        verify(medicineSearchIndex).put(medicine);
+    }
+
+    @Test
+    void patchMedicine_WhenDeltaExceedsStock_ShouldThrowInsufficientStock() {
+        MedicinePatch patch = new MedicinePatch();
+        patch.setQuantityDelta(-500);
+        when(medicineRepository.patch(eq("med1"), eq(adminId), eq(patch), any())).thenReturn(Optional.empty());
+        when(medicineRepository.findByIdAndAdminId("med1", adminId)).thenReturn(Optional.of(medicine));
+
+        assertThrows(InsufficientStockException.class, () -> medicineService.patchMedicine("med1", patch, adminId));
+    }
+
+    @Test
+    void patchMedicine_WhenMissing_ShouldThrowNotFound() {
+        MedicinePatch patch = new MedicinePatch();
+        patch.setName("Renamed");
+        when(medicineRepository.patch(eq("nope"), eq(adminId), eq(patch), any())).thenReturn(Optional.empty());
+        when(medicineRepository.findByIdAndAdminId("nope", adminId)).thenReturn(Optional.empty());
+
+        assertThrows(MedicineNotFoundException.class, () -> medicineService.patchMedicine("nope", patch, adminId));
+    }
+
+    @Test
+    void patchMedicine_WithBothQuantityForms_ShouldThrowIllegalArgumentException() {
+        MedicinePatch patch = new MedicinePatch();
+        patch.setQuantity(5);
+        patch.setQuantityDelta(2);
+
+        assertThrows(IllegalArgumentException.class, () -> medicineService.patchMedicine("med1", patch, adminId));
+        assertThrows(IllegalArgumentException.class,
+                () -> medicineService.patchMedicine("med1", new MedicinePatch(), adminId));
+        verifyNoInteractions(medicineRepository);
+    }
+
+    @Test
+    void patchMedicines_ShouldReportIdsThatDoNotExist() {
+        MedicinePatch first = new MedicinePatch();
+        first.setId("med1");
+        first.setPrice(11.0);
+        MedicinePatch second = new MedicinePatch();
+        second.setId("ghost");
+        second.setPrice(11.0);
+        com.mongodb.bulk.BulkWriteResult result = mock(com.mongodb.bulk.BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(medicineRepository.patchAll(eq(adminId), anyCollection(), any())).thenReturn(result);
+        when(medicineRepository.findAllById(anyIterable())).thenReturn(List.of(medicine));
+
+        BulkPatchResult report = medicineService.patchMedicines(List.of(first, second), adminId);
+
+        assertEquals(2, report.getRequested());
+        assertEquals(1, report.getMatched());
+        assertEquals(List.of("ghost"), report.getMissingIds());
+        verify(medicineSearchIndex, never()).invalidate(any());
+    }
+
+    @Test
+    void patchMedicines_WithDuplicateIds_ShouldThrowIllegalArgumentException() {
+        MedicinePatch first = new MedicinePatch();
+        first.setId("med1");
+        first.setPrice(11.0);
+        MedicinePatch again = new MedicinePatch();
+        again.setId("med1");
+        again.setQuantityDelta(3);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> medicineService.patchMedicines(List.of(first, again), adminId));
+        verifyNoInteractions(medicineRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void savesThroughSalesSummary() {
+        when(salesSummaryService.saveAndRecord(eq(adminId), any()))
+                .thenAnswer(inv -> ((java.util.function.Supplier<List<Sale>>) inv.getArgument(1)).get());
+    }
 }
@@ -0,0 +1,208 @@
+package com.pharmacy.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.management.dto.ColumnarPage;
+import com.pharmacy.management.dto.CursorPage;
+import com.pharmacy.management.dto.SaleRow;
+import com.pharmacy.management.exception.SaleNotFoundException;
+import com.pharmacy.management.model.DeliveryStatus;
+import com.pharmacy.management.model.Medicine;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.repository.MedicineRepository;
+import com.pharmacy.management.repository.SaleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SaleServiceTest {
+
+    @Mock
+    private SaleRepository saleRepository;
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Mock
+    private InvoiceStore invoiceStore;
+
+    @Mock
+    private InvoiceRenderer invoiceRenderer;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private SaleService saleService;
+
+    private Sale sale(String id, LocalDateTime date) {
+        Sale sale = new Sale("admin", "Paracetamol", 1, 10.0, 10.0, date);
+        sale.setId(id);
+        return sale;
+    }
+
+    @Test
+    void getSalesPage_WhenMoreRowsExist_ShouldReturnCursorOfLastRow() {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 10, 12, 0);
+        List<Sale> rows = new ArrayList<>(List.of(sale("s3", now), sale("s2", now.minusHours(1)),
+                sale("s1", now.minusHours(2))));
+        when(saleRepository.findPageAfter("admin", null, null, 3)).thenReturn(rows);
+
+        CursorPage<Sale> page = saleService.getSalesPage("admin", null, 2, false);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertNull(page.getTotalElements());
+        verify(saleRepository, never()).countByAdminId(anyString());
+
+        when(saleRepository.findPageAfter("admin", now.minusHours(1), "s2", 3)).thenReturn(List.of(sale("s1",
+                now.minusHours(2))));
+
+        CursorPage<Sale> next = saleService.getSalesPage("admin", page.getNextCursor(), 2, false);
+
+        assertEquals("s1", next.getContent().get(0).getId());
+        assertFalse(next.isHasNext());
+    }
+
+    @Test
+    void getSaleRows_ShouldLayOutProjectedRowsByColumn() {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 10, 12, 0);
+        when(saleRepository.findRowsAfter("admin", null, null, 2)).thenReturn(new ArrayList<>(List.of(
+                new SaleRow("s2", "Paracetamol", 2, 10.0, 20.0, now, DeliveryStatus.SENT),
+                new SaleRow("s1", "Ibuprofen", 1, 8.0, 8.0, now.minusHours(1), DeliveryStatus.PENDING))));
+
+        ColumnarPage page = saleService.getSaleRows("admin", null, 1);
+
+        assertEquals(1, page.getCount());
+        assertArrayEquals(new String[] { "s2" }, (String[]) page.getColumns().get("id"));
+        assertArrayEquals(new double[] { 20.0 }, (double[]) page.getColumns().get("totalPrice"));
+        assertArrayEquals(new String[] { "s2", now.toString() }, CursorPage.decodeCursor(page.getNextCursor()));
+        verify(saleRepository, never()).findPageAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getSalesPage_WhenTotalRequested_ShouldCount() {
+        when(saleRepository.findPageAfter(eq("admin"), isNull(), isNull(), anyInt())).thenReturn(List.of());
+        when(saleRepository.countByAdminId("admin")).thenReturn(42L);
+
+        CursorPage<Sale> page = saleService.getSalesPage("admin", null, 20, true);
+
+        assertEquals(42L, page.getTotalElements());
+    }
+
+    @Test
+    void getSalesPage_WithGarbageCursor_ShouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> saleService.getSalesPage("admin", "!!!", 20, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> saleService.getSalesPage("admin", CursorPage.encodeCursor("s1", "not-a-date"), 20, false));
+    }
+
+    @Test
+    void exportSales_AsCsv_ShouldStreamEscapedRowsForDateRange() throws Exception {
+        Sale plain = sale("s1", LocalDateTime.of(2026, 3, 1, 9, 30));
+        plain.setDeliveryStatus(DeliveryStatus.SENT);
+        Sale quoted = sale("s2", LocalDateTime.of(2026, 3, 2, 10, 0));
+        quoted.setMedicineName("Cough Syrup, \"Extra\"");
+        when(saleRepository.streamByAdminId("admin", LocalDateTime.of(2026, 3, 1, 0, 0),
+                LocalDateTime.of(2026, 3, 3, 0, 0))).thenReturn(Stream.of(plain, quoted));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        saleService.exportSales("admin", LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 2),
+                SaleService.ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,billId,saleDate"));
+        assertEquals("s1,,2026-03-01T09:30,Paracetamol,1,10.0,10.0,SENT", lines[1]);
+        assertTrue(lines[2].contains("\"Cough Syrup, \"\"Extra\"\"\""));
+    }
+
+    @Test
+    void exportSales_AsNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        when(saleRepository.streamByAdminId("admin", null, null))
+                .thenReturn(Stream.of(sale("s1", LocalDateTime.now()), sale("s2", LocalDateTime.now())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        saleService.exportSales("admin", null, null, SaleService.ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("s2", objectMapper.readTree(lines[1]).get("id").asText());
+    }
+
+    @Test
+    void getInvoice_WhenStored_ShouldNotRender() throws Exception {
+        Sale sale = sale("s1", LocalDateTime.now());
+        InvoiceStore.StoredInvoice stored = storedInvoice();
+        when(saleRepository.findByIdAndAdminId("s1", "admin")).thenReturn(Optional.of(sale));
+        when(invoiceStore.find("s1")).thenReturn(Optional.of(stored));
+
+        assertSame(stored, saleService.getInvoice("s1", "admin"));
+        verifyNoInteractions(invoiceRenderer);
+    }
+
+    @Test
+    void getInvoice_WhenEvicted_ShouldRenderWholeBillAgain() throws Exception {
+        Sale first = sale("s1", LocalDateTime.now());
+        Sale second = sale("s2", LocalDateTime.now());
+        first.setBillId("bill1");
+        second.setBillId("bill1");
+        byte[] pdf = { '%', 'P', 'D', 'F' };
+        InvoiceStore.StoredInvoice stored = storedInvoice();
+        when(saleRepository.findByIdAndAdminId("s2", "admin")).thenReturn(Optional.of(second));
+        when(invoiceStore.find("s2")).thenReturn(Optional.empty());
+        when(saleRepository.findByAdminIdAndBillId("admin", "bill1")).thenReturn(List.of(first, second));
+        when(invoiceRenderer.renderCart(List.of(first, second))).thenReturn(pdf);
+        when(invoiceStore.put(List.of("s1", "s2"), pdf)).thenReturn(stored);
+
+        assertSame(stored, saleService.getInvoice("s2", "admin"));
+    }
+
+    @Test
+    void getInvoice_WhenSingleSaleEvicted_ShouldRenderSingleBillAgain() throws Exception {
+        Sale sale = sale("s1", LocalDateTime.now());
+        Medicine catalogue = new Medicine("Paracetamol", "500mg tablets", 12.0, 40, null);
+        byte[] pdf = { '%', 'P', 'D', 'F' };
+        InvoiceStore.StoredInvoice stored = storedInvoice();
+        when(saleRepository.findByIdAndAdminId("s1", "admin")).thenReturn(Optional.of(sale));
+        when(invoiceStore.find("s1")).thenReturn(Optional.empty());
+        when(medicineRepository.findByNameAndAdminId("Paracetamol", "admin")).thenReturn(Optional.of(catalogue));
+        when(invoiceRenderer.renderBill(argThat(m -> "500mg tablets".equals(m.getDescription())
+                && m.getPrice() == 10.0), eq(1), eq(10.0))).thenReturn(pdf);
+        when(invoiceStore.put(List.of("s1"), pdf)).thenReturn(stored);
+
+        assertSame(stored, saleService.getInvoice("s1", "admin"));
+        verify(invoiceRenderer, never()).renderCart(any());
+        verify(saleRepository, never()).findByAdminIdAndBillId(any(), any());
+    }
+
+    @Test
+    void getInvoice_ForAnotherAdminsSale_ShouldThrowNotFound() throws Exception {
+        when(saleRepository.findByIdAndAdminId("s1", "admin")).thenReturn(Optional.empty());
+
+        assertThrows(SaleNotFoundException.class, () -> saleService.getInvoice("s1", "admin"));
+        verifyNoInteractions(invoiceStore);
+    }
+
+    private InvoiceStore.StoredInvoice storedInvoice() {
+        return new InvoiceStore.StoredInvoice("abc", Path.of("abc.pdf"), 4, false, FileTime.fromMillis(0));
+    }
+}
@@ -0,0 +1,125 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.dto.SalesSummary;
+import com.pharmacy.management.model.Sale;
+import com.pharmacy.management.model.SalesRollup;
+import com.pharmacy.management.repository.SalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesSummaryServiceTest {
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @InjectMocks
+    private SalesSummaryService salesSummaryService;
+
+    private SalesRollup rollup(SalesRollup.Scope scope, String key, long count, long qty, double revenue) {
+        SalesRollup rollup = new SalesRollup();
+        rollup.setId(SalesRollup.idOf("admin", scope, key));
+        rollup.setAdminId("admin");
+        rollup.setScope(scope);
+        rollup.setKey(key);
+        rollup.setSaleCount(count);
+        rollup.setQuantity(qty);
+        rollup.setRevenue(revenue);
+        return rollup;
+    }
+
+    @Test
+    void getSummary_ShouldReadRollupsOnly() {
+        when(salesRollupRepository.findById("admin|TOTAL|all"))
+                .thenReturn(Optional.of(rollup(SalesRollup.Scope.TOTAL, "all", 3, 7, 90.0)));
+        when(salesRollupRepository.findByAdminIdAndScope("admin", SalesRollup.Scope.MEDICINE))
+                .thenReturn(Arrays.asList(rollup(SalesRollup.Scope.MEDICINE, "Paracetamol", 2, 5, 50.0),
+                        rollup(SalesRollup.Scope.MEDICINE, "Ibuprofen", 1, 2, 40.0)));
+        String today = LocalDate.now().toString();
+        when(salesRollupRepository.findByAdminIdAndScopeAndKeyGreaterThanEqualOrderByKeyAsc("admin",
+                SalesRollup.Scope.DAY, LocalDate.now().minusDays(6).toString()))
+                .thenReturn(List.of(rollup(SalesRollup.Scope.DAY, today, 3, 7, 90.0)));
+
+        SalesSummary summary = salesSummaryService.getSummary("admin", 7);
+
+        assertEquals(90.0, summary.getTotalRevenue());
+        assertEquals(7, summary.getTotalQuantity());
+        assertEquals(2, summary.getByMedicine().size());
+        assertEquals("Paracetamol", summary.getByMedicine().get(0).getName());
+        assertEquals(today, summary.getDaily().get(0).getName());
+    }
+
+    @Test
+    void getSummary_WhenNoSales_ShouldReturnZeros() {
+        when(salesRollupRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        SalesSummary summary = salesSummaryService.getSummary("admin", 30);
+
+        assertEquals(0.0, summary.getTotalRevenue());
+        assertTrue(summary.getByMedicine().isEmpty());
+    }
+
+    @Test
+    void saveAndRecord_WhenRollupWriteFails_ShouldStillReturnSavedSales() {
+        List<Sale> sales = List.of(new Sale("admin", "Paracetamol", 1, 10.0, 10.0, LocalDateTime.now()));
+        doThrow(new RuntimeException("Mongo down")).when(salesRollupRepository).increment(sales);
+
+        assertSame(sales, salesSummaryService.saveAndRecord("admin", () -> sales));
+    }
+
+    @Test
+    void rebuild_ShouldWaitForSaleSavedButNotYetRecorded() throws Exception {
+        List<Sale> sales = List.of(new Sale("admin", "Paracetamol", 1, 10.0, 10.0, LocalDateTime.now()));
+        CountDownLatch saved = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Sale>> billing = executor.submit(() -> salesSummaryService.saveAndRecord("admin", () -> {
+                saved.countDown();
+                await(release);
+                return sales;
+            }));
+            assertTrue(saved.await(5, TimeUnit.SECONDS));
+            Future<?> rebuild = executor.submit(() -> salesSummaryService.rebuild("admin"));
+
+            assertThrows(TimeoutException.class, () -> rebuild.get(200, TimeUnit.MILLISECONDS));
+            verify(salesRollupRepository, never()).rebuild("admin");
+
+            release.countDown();
+            billing.get(5, TimeUnit.SECONDS);
+            rebuild.get(5, TimeUnit.SECONDS);
+            org.mockito.InOrder inOrder = inOrder(salesRollupRepository);
+            inOrder.verify(salesRollupRepository).increment(sales);
+            inOrder.verify(salesRollupRepository).rebuild("admin");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pharmacy.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TODAY = 20_000;
+
+    @Test
+    void advanceTo_ShouldFireEntriesOnTheirDayAcrossAllLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(TODAY);
+        wheel.schedule("tomorrow", TODAY + 1, "tomorrow");
+        wheel.schedule("nextMonth", TODAY + 30, "nextMonth");
+        wheel.schedule("nextYear", TODAY + 365, "nextYear");
+        wheel.schedule("inTwentyYears", TODAY + 7300, "inTwentyYears");
+
+        assertEquals(List.of("tomorrow"), wheel.advanceTo(TODAY + 1));
+        assertEquals(List.of(), wheel.advanceTo(TODAY + 29));
+        assertEquals(List.of("nextMonth"), wheel.advanceTo(TODAY + 30));
+        assertEquals(List.of(), wheel.advanceTo(TODAY + 364));
+        assertEquals(List.of("nextYear"), wheel.advanceTo(TODAY + 365));
+        assertEquals(List.of(), wheel.advanceTo(TODAY + 7299));
+        assertEquals(List.of("inTwentyYears"), wheel.advanceTo(TODAY + 7300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_ShouldReplaceEarlierScheduleAndCancelShouldRemove() {
+        TimingWheel<String> wheel = new TimingWheel<>(TODAY);
+        wheel.schedule("med1", TODAY + 5, "med1");
+        wheel.schedule("med1", TODAY + 100, "med1");
+        wheel.schedule("med2", TODAY + 5, "med2");
+        wheel.cancel("med2");
+
+        assertEquals(List.of(), wheel.advanceTo(TODAY + 99));
+        assertEquals(List.of("med1"), wheel.advanceTo(TODAY + 100));
+    }
+
+    @Test
+    void schedule_WhenDayNotInFuture_ShouldReject() {
+        TimingWheel<String> wheel = new TimingWheel<>(TODAY);
+
+        assertFalse(wheel.schedule("past", TODAY, "past"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceTo_OverManyDays_ShouldFireEverythingDueExactlyOnce() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TODAY);
+        for (long offset = 1; offset <= 5000; offset += 7) {
+            wheel.schedule("d" + offset, TODAY + offset, TODAY + offset);
+        }
+
+        for (long day = TODAY + 1; day <= TODAY + 5000; day++) {
+            for (Long firedFor : wheel.advanceTo(day)) {
+                assertEquals(day, firedFor);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+}